@@ -0,0 +1,55 @@
+package com.bank.loanapi.benchmark;
+
+import com.bank.loanapi.dto.request.CreateLoanRequest;
+import com.bank.loanapi.dto.response.LoanResponse;
+import com.bank.loanapi.service.LoanService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loans created per second against one hot customer by 1, 8 and 64 concurrent writers, all reserving credit on
+ * the same customers row. CreditReservationStressTest checks the outcome under the same contention; this measures
+ * how throughput holds up as writers are added.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class CreditReservationBenchmark {
+
+    private LoanService loanService;
+    private CreateLoanRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp(LoanBook loanBook) {
+        loanService = loanBook.bean(LoanService.class);
+        request = CreateLoanRequest.builder()
+                .customerId(loanBook.randomCustomerId())
+                .amount(new BigDecimal("1000"))
+                .interestRate(new BigDecimal("0.2"))
+                .numberOfInstallments(6)
+                .build();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public LoanResponse createLoan_1Writer() {
+        return loanService.createLoan(request);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public LoanResponse createLoan_8Writers() {
+        return loanService.createLoan(request);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public LoanResponse createLoan_64Writers() {
+        return loanService.createLoan(request);
+    }
+}
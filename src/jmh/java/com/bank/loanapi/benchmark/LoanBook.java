@@ -0,0 +1,191 @@
+package com.bank.loanapi.benchmark;
+
+import com.bank.loanapi.LoanApiApplication;
+import com.bank.loanapi.entity.User;
+import com.bank.loanapi.security.CustomUserDetails;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Boots the application against an embedded H2 database and seeds it with a realistic loan book:
+ * every customer holds one 6, 9, 12 and 24 installment loan, created up to five months ago, with
+ * installments due in the past paid and every tenth loan left with an overdue installment.
+ */
+@State(Scope.Benchmark)
+public class LoanBook {
+
+    private static final int[] INSTALLMENT_OPTIONS = {6, 9, 12, 24};
+    private static final BigDecimal[] INTEREST_RATES = {
+            new BigDecimal("0.10"), new BigDecimal("0.15"), new BigDecimal("0.25"), new BigDecimal("0.40")
+    };
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"5000"})
+    public int customers;
+
+    private Server databaseServer;
+    private ConfigurableApplicationContext context;
+    private long[] customerIds;
+    private long[] loanIds;
+    private long[] unpaidLoanIds;
+
+    @Setup(Level.Trial)
+    public void start() throws SQLException {
+        // Served over TCP so every statement pays a real round-trip, as it would against a remote database
+        databaseServer = Server.createTcpServer("-tcpPort", "0", "-tcpDaemon").start();
+
+        SpringApplication application = new SpringApplication(LoanApiApplication.class);
+        application.setAdditionalProfiles("benchmark");
+        application.setDefaultProperties(Map.of("spring.datasource.url",
+                "jdbc:h2:tcp://localhost:" + databaseServer.getPort() + "/mem:benchdb;DB_CLOSE_DELAY=-1"));
+        configure(application);
+        context = application.run(arguments());
+
+        seed(context.getBean(JdbcTemplate.class));
+
+        User admin = User.builder()
+                .id(0L)
+                .username("benchmark.admin")
+                .roles(Set.of(User.Role.ADMIN))
+                .build();
+        CustomUserDetails principal = new CustomUserDetails(admin);
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        SecurityContextHolder.clearContext();
+        context.close();
+        databaseServer.stop();
+    }
+
+    protected String[] arguments() {
+        return new String[0];
+    }
+
+    protected void configure(SpringApplication application) {
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public long randomCustomerId() {
+        return customerIds[ThreadLocalRandom.current().nextInt(customerIds.length)];
+    }
+
+    public long randomLoanId() {
+        return loanIds[ThreadLocalRandom.current().nextInt(loanIds.length)];
+    }
+
+    public long randomUnpaidLoanId() {
+        return unpaidLoanIds[ThreadLocalRandom.current().nextInt(unpaidLoanIds.length)];
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long firstCustomerId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM customers", Long.class);
+        List<Object[]> customerRows = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            customerRows.add(new Object[]{firstCustomerId + i, "Customer" + i, "Bench",
+                    new BigDecimal("1000000000.00"), BigDecimal.ZERO});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO customers (id, name, surname, credit_limit, used_credit_limit) VALUES (?, ?, ?, ?, ?)",
+                customerRows, BATCH_SIZE, (ps, row) -> {
+                    for (int i = 0; i < row.length; i++) {
+                        ps.setObject(i + 1, row[i]);
+                    }
+                });
+        customerIds = jdbcTemplate.queryForList("SELECT id FROM customers WHERE surname = 'Bench' ORDER BY id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+
+        long loanId = 0;
+        List<Object[]> loanRows = new ArrayList<>(customerIds.length * INSTALLMENT_OPTIONS.length);
+        for (long customerId : customerIds) {
+            for (int option = 0; option < INSTALLMENT_OPTIONS.length; option++) {
+                BigDecimal amount = BigDecimal.valueOf(random.nextInt(1_000, 50_000)).setScale(2, RoundingMode.HALF_UP);
+                LocalDateTime createDate = LocalDateTime.now().minusMonths(random.nextInt(0, 6));
+                loanRows.add(new Object[]{++loanId, customerId, amount, INSTALLMENT_OPTIONS[option],
+                        INTEREST_RATES[option], Timestamp.valueOf(createDate), false});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO loans (id, customer_id, loan_amount, number_of_installment, interest_rate, create_date, is_paid) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                loanRows, BATCH_SIZE, (ps, row) -> {
+                    for (int i = 0; i < row.length; i++) {
+                        ps.setObject(i + 1, row[i]);
+                    }
+                });
+
+        List<Object[]> loans = jdbcTemplate.query(
+                "SELECT id, loan_amount, interest_rate, number_of_installment, create_date FROM loans "
+                        + "WHERE customer_id IN (SELECT id FROM customers WHERE surname = 'Bench') ORDER BY id",
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getBigDecimal(2), rs.getBigDecimal(3),
+                        rs.getInt(4), rs.getTimestamp(5).toLocalDateTime()});
+
+        LocalDate today = LocalDate.now();
+        long installmentId = 0;
+        List<Object[]> installmentRows = new ArrayList<>();
+        for (Object[] loan : loans) {
+            long id = (Long) loan[0];
+            int count = (Integer) loan[3];
+            BigDecimal total = ((BigDecimal) loan[1]).multiply(BigDecimal.ONE.add((BigDecimal) loan[2]))
+                    .setScale(2, RoundingMode.HALF_UP);
+            BigDecimal installmentAmount = total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+            LocalDate firstDueDate = ((LocalDateTime) loan[4]).toLocalDate().plusMonths(1).withDayOfMonth(1);
+            boolean leaveOverdue = id % 10 == 0;
+
+            for (int i = 0; i < count; i++) {
+                LocalDate dueDate = firstDueDate.plusMonths(i);
+                boolean paid = dueDate.isBefore(today) && !(leaveOverdue && i == 0);
+                installmentRows.add(new Object[]{++installmentId, id, installmentAmount,
+                        paid ? installmentAmount : BigDecimal.ZERO, Date.valueOf(dueDate), paid ? Date.valueOf(dueDate) : null, paid});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO loan_installments (id, loan_id, amount, paid_amount, due_date, payment_date, is_paid) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                installmentRows, BATCH_SIZE, (ps, row) -> {
+                    for (int i = 0; i < row.length; i++) {
+                        ps.setObject(i + 1, row[i]);
+                    }
+                });
+        jdbcTemplate.update("UPDATE loans l SET "
+                + "paid_installment_count = (SELECT COUNT(*) FROM loan_installments li WHERE li.loan_id = l.id AND li.is_paid = true), "
+                + "remaining_amount = (SELECT COALESCE(SUM(li.amount), 0) FROM loan_installments li WHERE li.loan_id = l.id AND li.is_paid = false), "
+                + "next_due_date = (SELECT MIN(li.due_date) FROM loan_installments li WHERE li.loan_id = l.id AND li.is_paid = false) "
+                + "WHERE customer_id IN (SELECT id FROM customers WHERE surname = 'Bench')");
+
+        // Ids above were assigned here, so move the pooled sequences clear of them
+        jdbcTemplate.execute("ALTER SEQUENCE customers_seq RESTART WITH " + (firstCustomerId + customers + 1000));
+        jdbcTemplate.execute("ALTER SEQUENCE loans_seq RESTART WITH " + (loanId + 1000));
+        jdbcTemplate.execute("ALTER SEQUENCE loan_installments_seq RESTART WITH " + (installmentId + 1000));
+
+        loanIds = loans.stream().mapToLong(loan -> (Long) loan[0]).toArray();
+        unpaidLoanIds = jdbcTemplate.queryForList(
+                        "SELECT DISTINCT loan_id FROM loan_installments WHERE is_paid = false ORDER BY loan_id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+}
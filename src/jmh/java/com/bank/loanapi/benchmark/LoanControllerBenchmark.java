@@ -0,0 +1,40 @@
+package com.bank.loanapi.benchmark;
+
+import com.bank.loanapi.controller.LoanController;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Endpoint-level benchmarks: the controller call plus JSON serialization of the body, which is
+ * what a polling client pays for on every request apart from the servlet stack itself. Requests carry no
+ * If-None-Match, so each one reads and serializes the full schedule.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class LoanControllerBenchmark {
+
+    private LoanController loanController;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp(LoanBook loanBook) {
+        loanController = loanBook.bean(LoanController.class);
+        objectMapper = loanBook.bean(ObjectMapper.class);
+    }
+
+    @Benchmark
+    public byte[] listInstallments(LoanBook loanBook) throws JsonProcessingException {
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+        return objectMapper.writeValueAsBytes(
+                loanController.listInstallments(loanBook.randomLoanId(), request).getBody());
+    }
+}
@@ -0,0 +1,56 @@
+package com.bank.loanapi.benchmark;
+
+import com.bank.loanapi.dto.request.CreateLoanRequest;
+import com.bank.loanapi.dto.response.LoanResponse;
+import com.bank.loanapi.service.LoanService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loans created per second with Hibernate JDBC batching switched off ({@code jdbcBatchSize=1})
+ * and on, for each installment plan. A 24 installment loan is one batch instead of 24 round-trips.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoanCreationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class BatchingLoanBook extends LoanBook {
+
+        @Param({"1", "50"})
+        public int jdbcBatchSize;
+
+        @Override
+        protected String[] arguments() {
+            return new String[]{"--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize};
+        }
+    }
+
+    @Param({"6", "24"})
+    public int numberOfInstallments;
+
+    private LoanService loanService;
+
+    @Setup(Level.Trial)
+    public void setUp(BatchingLoanBook loanBook) {
+        loanService = loanBook.bean(LoanService.class);
+    }
+
+    @Benchmark
+    public LoanResponse createLoan(BatchingLoanBook loanBook) {
+        CreateLoanRequest request = CreateLoanRequest.builder()
+                .customerId(loanBook.randomCustomerId())
+                .amount(new BigDecimal("10000"))
+                .interestRate(new BigDecimal("0.2"))
+                .numberOfInstallments(numberOfInstallments)
+                .build();
+        return loanService.createLoan(request);
+    }
+}
@@ -0,0 +1,52 @@
+package com.bank.loanapi.benchmark;
+
+import com.bank.loanapi.dto.request.CreateLoanRequest;
+import com.bank.loanapi.dto.response.InstallmentResponse;
+import com.bank.loanapi.dto.response.LoanResponse;
+import com.bank.loanapi.service.LoanService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class LoanServiceBenchmark {
+
+    private static final int[] INSTALLMENT_OPTIONS = {6, 9, 12, 24};
+
+    private LoanService loanService;
+
+    @Setup(Level.Trial)
+    public void setUp(LoanBook loanBook) {
+        loanService = loanBook.bean(LoanService.class);
+    }
+
+    @Benchmark
+    public LoanResponse createLoan(LoanBook loanBook) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        CreateLoanRequest request = CreateLoanRequest.builder()
+                .customerId(loanBook.randomCustomerId())
+                .amount(BigDecimal.valueOf(random.nextInt(1_000, 50_000)))
+                .interestRate(new BigDecimal("0.2"))
+                .numberOfInstallments(INSTALLMENT_OPTIONS[random.nextInt(INSTALLMENT_OPTIONS.length)])
+                .build();
+        return loanService.createLoan(request);
+    }
+
+    @Benchmark
+    public List<LoanResponse> listLoans(LoanBook loanBook) {
+        return loanService.listLoans(loanBook.randomCustomerId(), null, null);
+    }
+
+    @Benchmark
+    public List<InstallmentResponse> listInstallments(LoanBook loanBook) {
+        return loanService.listInstallments(loanBook.randomLoanId());
+    }
+}
@@ -0,0 +1,51 @@
+package com.bank.loanapi.benchmark;
+
+import com.bank.loanapi.dto.request.PayLoanRequest;
+import com.bank.loanapi.dto.response.PaymentResultResponse;
+import com.bank.loanapi.service.PaymentService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each payment runs inside an outer transaction that is flushed and then rolled back, so the
+ * UPDATE statements are issued but the seeded book is never paid off during a run.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class PaymentServiceBenchmark {
+
+    private static final PayLoanRequest PAYMENT = new PayLoanRequest(new BigDecimal("5000"));
+
+    private PaymentService paymentService;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void setUp(LoanBook loanBook) {
+        paymentService = loanBook.bean(PaymentService.class);
+        transactionTemplate = new TransactionTemplate(loanBook.bean(PlatformTransactionManager.class));
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(loanBook.bean(EntityManagerFactory.class));
+    }
+
+    @Benchmark
+    public PaymentResultResponse payLoan(LoanBook loanBook) {
+        long loanId = loanBook.randomUnpaidLoanId();
+        return transactionTemplate.execute(status -> {
+            PaymentResultResponse result = paymentService.payLoan(loanId, PAYMENT);
+            entityManager.flush();
+            status.setRollbackOnly();
+            return result;
+        });
+    }
+}
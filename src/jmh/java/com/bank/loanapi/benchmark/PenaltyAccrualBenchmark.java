@@ -0,0 +1,36 @@
+package com.bank.loanapi.benchmark;
+
+import com.bank.loanapi.service.PenaltyAccrualService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full accrual run per invocation. Each run is for a later day, far enough ahead that every unpaid
+ * installment in the book is overdue, so no run finds a completed checkpoint. Divide the installments written
+ * (logged per run) by the run time to get the rate for sizing against a larger book.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class PenaltyAccrualBenchmark {
+
+    private PenaltyAccrualService penaltyAccrualService;
+    private LocalDate asOf;
+
+    @Setup(Level.Trial)
+    public void setUp(LoanBook loanBook) {
+        penaltyAccrualService = loanBook.bean(PenaltyAccrualService.class);
+        asOf = LocalDate.now().plusYears(5);
+    }
+
+    @Benchmark
+    public long accrue() {
+        asOf = asOf.plusDays(1);
+        return penaltyAccrualService.accrue(asOf);
+    }
+}
@@ -0,0 +1,60 @@
+package com.bank.loanapi.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wraps the application's DataSource so that every executed JDBC statement is delayed, simulating a
+ * database that is slow to answer while the connection stays checked out of the pool.
+ */
+class SlowStatements implements BeanPostProcessor {
+
+    private volatile long latencyNanos;
+
+    void enable(long latencyMillis) {
+        latencyNanos = latencyMillis * 1_000_000;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return wrap(DataSource.class, dataSource);
+        }
+        return bean;
+    }
+
+    private Object wrap(Class<?> type, Object target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().startsWith("execute") && target instanceof Statement) {
+                long latency = latencyNanos;
+                if (latency > 0) {
+                    LockSupport.parkNanos(latency);
+                }
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+
+            if (result instanceof Connection connection && method.getName().equals("getConnection")
+                    && target instanceof DataSource) {
+                return wrap(Connection.class, connection);
+            }
+            if (result instanceof Statement statement && target instanceof Connection) {
+                return wrap(method.getReturnType(), statement);
+            }
+            return result;
+        };
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
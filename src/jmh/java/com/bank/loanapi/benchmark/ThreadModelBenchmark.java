@@ -0,0 +1,105 @@
+package com.bank.loanapi.benchmark;
+
+import com.bank.loanapi.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP load test of the loan endpoints against a slow database (every JDBC statement delayed by
+ * {@code statementLatencyMs}), served either by Tomcat's platform thread pool or by virtual threads
+ * queued on the database limiter. Requests answered with anything but 200 are counted as errors.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Threads(400)
+@State(Scope.Benchmark)
+public class ThreadModelBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ServedLoanBook extends LoanBook {
+
+        @Param({"false", "true"})
+        public boolean virtualThreads;
+
+        @Param({"5"})
+        public int statementLatencyMs;
+
+        private final SlowStatements slowStatements = new SlowStatements();
+        private HttpClient client;
+        private String baseUrl;
+        private String authorization;
+
+        @Override
+        protected String[] arguments() {
+            return new String[]{
+                    "--spring.main.web-application-type=servlet",
+                    "--server.port=0",
+                    "--spring.threads.virtual.enabled=" + virtualThreads,
+                    "--jwt.stateless=true"
+            };
+        }
+
+        @Override
+        protected void configure(SpringApplication application) {
+            application.addInitializers(context -> context.getBeanFactory().addBeanPostProcessor(slowStatements));
+        }
+
+        @Setup(Level.Trial)
+        public void connect() {
+            baseUrl = "http://localhost:" + bean(Environment.class).getProperty("local.server.port");
+            authorization = "Bearer " + bean(JwtTokenProvider.class)
+                    .generateToken(SecurityContextHolder.getContext().getAuthentication());
+            // Requests authenticate themselves; a context shared across threads would be cleared by each response
+            SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_THREADLOCAL);
+            client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            slowStatements.enable(statementLatencyMs);
+        }
+
+        int get(String path) throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Authorization", authorization)
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long errors;
+
+        void record(int status) {
+            if (status != 200) {
+                errors++;
+            }
+        }
+    }
+
+    @Benchmark
+    public void listLoans(ServedLoanBook loanBook, Outcomes outcomes) throws IOException, InterruptedException {
+        outcomes.record(loanBook.get("/api/loans?customerId=" + loanBook.randomCustomerId()));
+    }
+
+    @Benchmark
+    public void listInstallments(ServedLoanBook loanBook, Outcomes outcomes) throws IOException, InterruptedException {
+        outcomes.record(loanBook.get("/api/loans/" + loanBook.randomLoanId() + "/installments"));
+    }
+}
@@ -0,0 +1,43 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.entity.Loan;
+import com.bank.loanapi.money.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-benchmark for the installment schedule that {@link LoanService#createLoan} attaches to a new loan.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class InstallmentScheduleBenchmark {
+
+    @Param({"6", "9", "12", "24"})
+    public int numberOfInstallments;
+
+    private Money totalAmount;
+    private LocalDate firstDueDate;
+
+    @Setup
+    public void setUp() {
+        totalAmount = Money.of("5750.00");
+        firstDueDate = LocalDate.now().plusMonths(1).withDayOfMonth(1);
+    }
+
+    @Benchmark
+    public Loan addInstallments() {
+        Loan loan = Loan.builder()
+                .numberOfInstallment(numberOfInstallments)
+                .installments(new ArrayList<>(numberOfInstallments))
+                .build();
+        LoanService.addInstallments(loan, totalAmount, firstDueDate);
+        return loan;
+    }
+}
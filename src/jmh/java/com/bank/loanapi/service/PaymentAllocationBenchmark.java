@@ -0,0 +1,72 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.request.PayLoanRequest;
+import com.bank.loanapi.dto.response.PaymentResultResponse;
+import com.bank.loanapi.entity.Loan;
+import com.bank.loanapi.entity.LoanInstallment;
+import com.bank.loanapi.money.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory part of {@link PaymentService#payLoan}: pick the payable installments, price and allocate the
+ * payment, and build the response. Run with {@code -prof gc} to compare allocation per payment.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PaymentAllocationBenchmark {
+
+    private static final PayLoanRequest PAYMENT = new PayLoanRequest(new BigDecimal("1500.00"));
+
+    @Param({"12", "24"})
+    public int numberOfInstallments;
+
+    private LocalDate today;
+    private Loan loan;
+
+    // A third of the installments paid, the next two overdue, the rest due monthly from next month
+    @Setup
+    public void setUp() {
+        today = LocalDate.now();
+        loan = Loan.builder()
+                .id(1L)
+                .loanAmount(Money.of("10000.00"))
+                .interestRate(new BigDecimal("0.15"))
+                .numberOfInstallment(numberOfInstallments)
+                .isPaid(false)
+                .installments(new ArrayList<>(numberOfInstallments))
+                .build();
+        int paid = numberOfInstallments / 3;
+        LocalDate firstDueDate = today.minusMonths(paid + 2).withDayOfMonth(1);
+        Money amount = LoanCalculator.installmentAmount(Money.of("11500.00"), numberOfInstallments);
+        for (int i = 0; i < numberOfInstallments; i++) {
+            loan.getInstallments().add(LoanInstallment.builder()
+                    .id((long) i + 1)
+                    .loan(loan)
+                    .amount(amount)
+                    .paidAmount(i < paid ? amount : Money.ZERO)
+                    .dueDate(firstDueDate.plusMonths(i))
+                    .isPaid(i < paid)
+                    .build());
+        }
+        LoanCalculator.summarize(loan);
+    }
+
+    @Benchmark
+    public PaymentResultResponse payLoan() {
+        List<LoanInstallment> payableInstallments = PaymentService.payableInstallments(loan,
+                PaymentService.maxPayableDate(today));
+        LoanCalculator.Allocation allocation = LoanCalculator.allocate(payableInstallments,
+                Money.of(PAYMENT.getAmount()), today);
+        return LoanCalculator.paymentResult(loan, allocation);
+    }
+}
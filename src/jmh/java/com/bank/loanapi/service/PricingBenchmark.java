@@ -0,0 +1,49 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.entity.LoanInstallment;
+import com.bank.loanapi.money.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-benchmarks for the early/late pricing rules in {@link PaymentService}, without any persistence involved.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PricingBenchmark {
+
+    @Param({"-30", "0", "20"})
+    public int daysUntilDue;
+
+    private final PaymentService paymentService = new PaymentService(null, null, null, null);
+
+    private LocalDate today;
+    private LoanInstallment installment;
+
+    @Setup
+    public void setUp() {
+        today = LocalDate.now();
+        installment = LoanInstallment.builder()
+                .amount(Money.of("479.17"))
+                .paidAmount(Money.ZERO)
+                .dueDate(today.plusDays(daysUntilDue))
+                .isPaid(false)
+                .build();
+    }
+
+    @Benchmark
+    public Money calculateRequiredAmount() {
+        return paymentService.calculateRequiredAmount(installment, today);
+    }
+
+    @Benchmark
+    public String determinePaymentType() {
+        return paymentService.determinePaymentType(installment.getDueDate(), today);
+    }
+}
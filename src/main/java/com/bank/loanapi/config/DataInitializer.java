@@ -2,6 +2,7 @@ package com.bank.loanapi.config;
 
 import com.bank.loanapi.entity.Customer;
 import com.bank.loanapi.entity.User;
+import com.bank.loanapi.money.Money;
 import com.bank.loanapi.repository.CustomerRepository;
 import com.bank.loanapi.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -10,7 +11,6 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
-import java.math.BigDecimal;
 import java.util.Set;
 
 @Component
@@ -54,8 +54,8 @@ public class DataInitializer implements CommandLineRunner {
             Customer johnCustomer = Customer.builder()
                     .name("John")
                     .surname("Doe")
-                    .creditLimit(new BigDecimal("10000.00"))
-                    .usedCreditLimit(BigDecimal.ZERO)
+                    .creditLimit(Money.of("10000.00"))
+                    .usedCreditLimit(Money.ZERO)
                     .user(johnUser)
                     .build();
             customerRepository.save(johnCustomer);
@@ -73,8 +73,8 @@ public class DataInitializer implements CommandLineRunner {
             Customer janeCustomer = Customer.builder()
                     .name("Jane")
                     .surname("Smith")
-                    .creditLimit(new BigDecimal("15000.00"))
-                    .usedCreditLimit(BigDecimal.ZERO)
+                    .creditLimit(Money.of("15000.00"))
+                    .usedCreditLimit(Money.ZERO)
                     .user(janeUser)
                     .build();
             customerRepository.save(janeCustomer);
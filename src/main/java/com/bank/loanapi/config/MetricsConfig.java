@@ -0,0 +1,47 @@
+package com.bank.loanapi.config;
+
+import com.bank.loanapi.metrics.StatementCountingFilter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.cache.CacheManager;
+
+@Configuration
+public class MetricsConfig {
+
+    // Enables @Timed on service methods
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<StatementCountingFilter> statementCountingFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<StatementCountingFilter> registration =
+                new FilterRegistrationBean<>(new StatementCountingFilter(meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // Second-level cache regions as cache_* metrics, whether or not Hibernate statistics are on
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            SecondLevelCacheRegionFactory regionFactory = (SecondLevelCacheRegionFactory)
+                    entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache().getRegionFactory();
+            CacheManager cacheManager = regionFactory.getCacheManager();
+            for (String region : cacheManager.getCacheNames()) {
+                JCacheMetrics.monitor(registry, cacheManager.getCache(region), Tags.of("cache.level", "second"));
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.bank.loanapi.config;
+
+import com.bank.loanapi.repository.ReadReplicaHealth;
+import com.bank.loanapi.repository.ReadReplicaRoutingDataSource;
+import com.bank.loanapi.repository.ReadYourWrites;
+import com.bank.loanapi.repository.ReplicaCacheBypass;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Adds a read replica when {@code replica.datasource.url} is set: read-only transactions run against the
+ * replica and everything else against the primary configured under {@code spring.datasource}. Transactions
+ * sent to the replica bypass the second-level cache, which therefore only ever holds rows from the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "replica.datasource", name = "url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("replica.datasource.hikari")
+    public HikariDataSource replicaDataSource(@Value("${replica.datasource.url}") String url,
+                                              @Value("${replica.datasource.username:}") String username,
+                                              @Value("${replica.datasource.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        // Start even if the replica is down; reads go to the primary until it is reachable
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadReplicaHealth readReplicaHealth(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               MeterRegistry meterRegistry) {
+        ReadReplicaHealth health = new ReadReplicaHealth(replicaDataSource);
+        Gauge.builder("db.replica.up", health, replicaHealth -> replicaHealth.isUp() ? 1 : 0)
+                .description("Whether read-only transactions are sent to the read replica")
+                .register(meterRegistry);
+        return health;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReadReplicaHealth readReplicaHealth, ReadYourWrites readYourWrites,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primaryDataSource,
+                replicaDataSource, readReplicaHealth, readYourWrites, meterRegistry));
+    }
+
+    @Bean
+    public ReplicaCacheBypass replicaCacheBypass(EntityManagerFactory entityManagerFactory,
+                                                 ReadReplicaHealth readReplicaHealth, ReadYourWrites readYourWrites) {
+        return new ReplicaCacheBypass(entityManagerFactory, readReplicaHealth, readYourWrites);
+    }
+}
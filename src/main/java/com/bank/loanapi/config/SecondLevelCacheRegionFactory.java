@@ -0,0 +1,52 @@
+package com.bank.loanapi.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.springframework.boot.convert.DurationStyle;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache on an in-process Caffeine JCache manager. Every region is bounded by
+ * {@value #MAX_ENTRIES} and expires {@value #TTL} after it was written. Each session factory gets a cache
+ * manager of its own, so application contexts sharing a JVM, as the tests do, never read each other's entries.
+ * Regions keep JCache statistics, which {@link MetricsConfig} exports as {@code cache_*} metrics.
+ */
+public class SecondLevelCacheRegionFactory extends JCacheRegionFactory {
+
+    public static final String MAX_ENTRIES = "hibernate.cache.max_entries";
+    public static final String TTL = "hibernate.cache.ttl";
+
+    private long maxEntries;
+    private Duration ttl;
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map properties) {
+        maxEntries = Long.parseLong(String.valueOf(properties.getOrDefault(MAX_ENTRIES, "10000")));
+        ttl = DurationStyle.detectAndParse(String.valueOf(properties.getOrDefault(TTL, "10m")));
+
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        return provider.getCacheManager(URI.create("second-level-cache-" + UUID.randomUUID()),
+                provider.getDefaultClassLoader());
+    }
+
+    @Override
+    protected Cache<Object, Object> createCache(String regionName) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return getCacheManager().createCache(regionName, configuration);
+    }
+}
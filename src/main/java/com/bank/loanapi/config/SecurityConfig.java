@@ -2,6 +2,7 @@ package com.bank.loanapi.config;
 
 import com.bank.loanapi.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -21,18 +22,32 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    public static final String[] PUBLIC_PATHS = {"/api/auth/**", "/h2-console/**", "/swagger-ui/**", "/api-docs/**",
+            "/actuator/health"};
+
+    private static final String PROMETHEUS_PATH = "/actuator/prometheus";
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // Metrics cover every customer, so scraping takes an admin token unless opened up (dev profile)
+    @Value("${metrics.prometheus.public:false}")
+    private boolean prometheusPublic;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf
                         .ignoringRequestMatchers("/api/auth/**", "/h2-console/**"))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/auth/**", "/h2-console/**", "/swagger-ui/**", "/api-docs/**").permitAll()
-                        .anyRequest().authenticated()
-                )
+                .authorizeHttpRequests(auth -> {
+                    auth.requestMatchers(PUBLIC_PATHS).permitAll();
+                    if (prometheusPublic) {
+                        auth.requestMatchers(PROMETHEUS_PATH).permitAll();
+                    } else {
+                        auth.requestMatchers(PROMETHEUS_PATH).hasRole("ADMIN");
+                    }
+                    auth.anyRequest().authenticated();
+                })
                 .headers(headers -> headers.frameOptions(frame -> frame.disable()))
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
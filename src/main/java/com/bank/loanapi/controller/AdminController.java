@@ -0,0 +1,127 @@
+package com.bank.loanapi.controller;
+
+import com.bank.loanapi.dto.request.InstallmentSearchCriteria;
+import com.bank.loanapi.dto.request.LoanSearchCriteria;
+import com.bank.loanapi.dto.response.BulkImportResponse;
+import com.bank.loanapi.dto.response.InstallmentPageResponse;
+import com.bank.loanapi.dto.response.LoanPageResponse;
+import com.bank.loanapi.service.BulkImportService;
+import com.bank.loanapi.service.LoanExportService;
+import com.bank.loanapi.service.LoanSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.Parameter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Administration", description = "Bulk administration and search APIs")
+@SecurityRequirement(name = "bearerAuth")
+public class AdminController {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final BulkImportService bulkImportService;
+    private final LoanExportService loanExportService;
+    private final LoanSearchService loanSearchService;
+
+    @PostMapping(value = "/import", consumes = NDJSON)
+    @Operation(summary = "Bulk Import",
+            description = "Stream customers and loans as NDJSON, one customer per line; rejected lines are reported by number")
+    public ResponseEntity<BulkImportResponse> importCustomersAndLoans(HttpServletRequest request) throws IOException {
+        BulkImportResponse response = bulkImportService.importNdjson(request.getInputStream());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/export/loans")
+    @Operation(summary = "Export Loan Book",
+            description = "Stream every loan and installment, as CSV with one row per installment or NDJSON with one loan per line")
+    public void exportLoans(
+            @Parameter(description = "csv or ndjson") @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        LoanExportService.Format exportFormat = LoanExportService.Format.of(format);
+        response.setContentType(exportFormat.getMediaType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("loans-" + LocalDate.now() + "." + exportFormat.getExtension())
+                .build()
+                .toString());
+        loanExportService.export(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/loans")
+    @Operation(summary = "Search Loans",
+            description = "Search loans across all customers page by page, with optional filters and a continuation cursor")
+    public ResponseEntity<LoanPageResponse> searchLoans(
+            @Parameter(description = "Customer ID") @RequestParam(required = false) Long customerId,
+            @Parameter(description = "Is paid filter") @RequestParam(required = false) Boolean isPaid,
+            @Parameter(description = "Number of installments filter") @RequestParam(required = false) Integer numberOfInstallments,
+            @Parameter(description = "Minimum loan amount") @RequestParam(required = false) BigDecimal minAmount,
+            @Parameter(description = "Maximum loan amount") @RequestParam(required = false) BigDecimal maxAmount,
+            @Parameter(description = "Next installment due on or after (yyyy-MM-dd)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @Parameter(description = "Next installment due on or before (yyyy-MM-dd)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+            @Parameter(description = "Only unpaid loans with an installment past due") @RequestParam(required = false) Boolean overdue,
+            @Parameter(description = "Continuation cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(required = false) Integer size) {
+        LoanSearchCriteria criteria = LoanSearchCriteria.builder()
+                .customerId(customerId)
+                .isPaid(isPaid)
+                .numberOfInstallments(numberOfInstallments)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .dueFrom(dueFrom)
+                .dueTo(dueTo)
+                .overdue(overdue)
+                .build();
+        LoanPageResponse page = loanSearchService.searchLoans(criteria, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/installments")
+    @Operation(summary = "Search Installments",
+            description = "Search installments across all loans page by page, with optional filters and a continuation cursor")
+    public ResponseEntity<InstallmentPageResponse> searchInstallments(
+            @Parameter(description = "Customer ID") @RequestParam(required = false) Long customerId,
+            @Parameter(description = "Loan ID") @RequestParam(required = false) Long loanId,
+            @Parameter(description = "Is paid filter") @RequestParam(required = false) Boolean isPaid,
+            @Parameter(description = "Number of installments of the loan") @RequestParam(required = false) Integer numberOfInstallments,
+            @Parameter(description = "Minimum installment amount") @RequestParam(required = false) BigDecimal minAmount,
+            @Parameter(description = "Maximum installment amount") @RequestParam(required = false) BigDecimal maxAmount,
+            @Parameter(description = "Due on or after (yyyy-MM-dd)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @Parameter(description = "Due on or before (yyyy-MM-dd)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+            @Parameter(description = "Only unpaid installments past their due date") @RequestParam(required = false) Boolean overdue,
+            @Parameter(description = "Continuation cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(required = false) Integer size) {
+        InstallmentSearchCriteria criteria = InstallmentSearchCriteria.builder()
+                .customerId(customerId)
+                .loanId(loanId)
+                .isPaid(isPaid)
+                .numberOfInstallments(numberOfInstallments)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .dueFrom(dueFrom)
+                .dueTo(dueTo)
+                .overdue(overdue)
+                .build();
+        InstallmentPageResponse page = loanSearchService.searchInstallments(criteria, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+}
@@ -2,8 +2,6 @@ package com.bank.loanapi.controller;
 
 import com.bank.loanapi.dto.request.LoginRequest;
 import com.bank.loanapi.dto.response.JwtAuthenticationResponse;
-import com.bank.loanapi.entity.Customer;
-import com.bank.loanapi.repository.CustomerRepository;
 import com.bank.loanapi.security.CustomUserDetails;
 import com.bank.loanapi.security.JwtTokenProvider;
 import io.swagger.v3.oas.annotations.Operation;
@@ -26,7 +24,6 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
-    private final CustomerRepository customerRepository;
 
     @PostMapping("/login")
     @Operation(summary = "Login", description = "Authenticate user and get JWT token")
@@ -43,15 +40,6 @@ public class AuthController {
 
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
 
-        // Get customer ID if user has CUSTOMER role
-        Long customerId = null;
-        if (userDetails.getUser().getRoles().stream().anyMatch(role -> role.name().equals("CUSTOMER"))) {
-            Customer customer = customerRepository.findByUserId(userDetails.getUser().getId()).orElse(null);
-            if (customer != null) {
-                customerId = customer.getId();
-            }
-        }
-
         JwtAuthenticationResponse response = JwtAuthenticationResponse.builder()
                 .accessToken(jwt)
                 .tokenType("Bearer")
@@ -59,7 +47,7 @@ public class AuthController {
                 .roles(userDetails.getUser().getRoles().stream()
                         .map(Enum::name)
                         .collect(Collectors.toSet()))
-                .customerId(customerId)
+                .customerId(userDetails.getCustomerId()) // resolved with the user, no second lookup
                 .build();
 
         return ResponseEntity.ok(response);
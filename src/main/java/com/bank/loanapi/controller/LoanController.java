@@ -1,10 +1,23 @@
 package com.bank.loanapi.controller;
 
+import com.bank.loanapi.dto.request.BatchPaymentRequest;
 import com.bank.loanapi.dto.request.CreateLoanRequest;
+import com.bank.loanapi.dto.request.LoanSearchCriteria;
 import com.bank.loanapi.dto.request.PayLoanRequest;
+import com.bank.loanapi.dto.response.BatchPaymentResponse;
 import com.bank.loanapi.dto.response.InstallmentResponse;
+import com.bank.loanapi.dto.response.LoanPageResponse;
+import com.bank.loanapi.dto.response.LoanQuoteResponse;
 import com.bank.loanapi.dto.response.LoanResponse;
+import com.bank.loanapi.dto.response.PaymentQuoteResponse;
 import com.bank.loanapi.dto.response.PaymentResultResponse;
+import com.bank.loanapi.repository.CustomerLoansVersion;
+import com.bank.loanapi.repository.LoanScheduleVersion;
+import com.bank.loanapi.repository.ReadYourWrites;
+import com.bank.loanapi.service.BatchPaymentService;
+import com.bank.loanapi.service.CustomerWriteExecutor;
+import com.bank.loanapi.service.IdempotentPaymentService;
+import com.bank.loanapi.service.LoanQuoteService;
 import com.bank.loanapi.service.LoanService;
 import com.bank.loanapi.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,10 +26,16 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -26,13 +45,23 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class LoanController {
 
+    // Clients may keep a response but revalidate it with its ETag; a paid loan's schedule never changes again
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    private static final CacheControl PAID_LOAN = CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
+
     private final LoanService loanService;
     private final PaymentService paymentService;
+    private final CustomerWriteExecutor writeExecutor;
+    private final BatchPaymentService batchPaymentService;
+    private final IdempotentPaymentService idempotentPaymentService;
+    private final LoanQuoteService loanQuoteService;
+    private final ReadYourWrites readYourWrites;
 
     @PostMapping
     @Operation(summary = "Create Loan", description = "Create a new loan for a customer")
     public ResponseEntity<LoanResponse> createLoan(@Valid @RequestBody CreateLoanRequest request) {
-        LoanResponse response = loanService.createLoan(request);
+        LoanResponse response = writeExecutor.execute(request.getCustomerId(), () -> loanService.createLoan(request));
+        readYourWrites.pinCurrentUser();
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
@@ -41,25 +70,108 @@ public class LoanController {
     public ResponseEntity<List<LoanResponse>> listLoans(
             @Parameter(description = "Customer ID") @RequestParam Long customerId,
             @Parameter(description = "Number of installments filter") @RequestParam(required = false) Integer numberOfInstallments,
-            @Parameter(description = "Is paid filter") @RequestParam(required = false) Boolean isPaid) {
+            @Parameter(description = "Is paid filter") @RequestParam(required = false) Boolean isPaid,
+            WebRequest webRequest) {
+        CustomerLoansVersion version = loanService.findLoansVersion(customerId);
+        if (webRequest.checkNotModified(version.eTag())) {
+            return null; // 304 already written, nothing loaded or serialized
+        }
         List<LoanResponse> loans = loanService.listLoans(customerId, numberOfInstallments, isPaid);
-        return ResponseEntity.ok(loans);
+        return ResponseEntity.ok()
+                .eTag(version.eTag())
+                .cacheControl(REVALIDATE)
+                .body(loans);
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "List Loans (paginated)",
+            description = "List loans for a given customer page by page, with optional filters and a continuation cursor")
+    public ResponseEntity<LoanPageResponse> listLoansPage(
+            @Parameter(description = "Customer ID") @RequestParam Long customerId,
+            @Parameter(description = "Is paid filter") @RequestParam(required = false) Boolean isPaid,
+            @Parameter(description = "Number of installments filter") @RequestParam(required = false) Integer numberOfInstallments,
+            @Parameter(description = "Created on or after (yyyy-MM-dd)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+            @Parameter(description = "Created on or before (yyyy-MM-dd)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+            @Parameter(description = "Minimum loan amount") @RequestParam(required = false) BigDecimal minAmount,
+            @Parameter(description = "Maximum loan amount") @RequestParam(required = false) BigDecimal maxAmount,
+            @Parameter(description = "Continuation cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(required = false) Integer size) {
+        LoanSearchCriteria criteria = LoanSearchCriteria.builder()
+                .customerId(customerId)
+                .isPaid(isPaid)
+                .numberOfInstallments(numberOfInstallments)
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .build();
+        LoanPageResponse page = loanService.listLoansPage(criteria, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/quote")
+    @Operation(summary = "Quote Loan",
+            description = "Preview the total and installment schedule a new loan would get, without creating it")
+    public ResponseEntity<LoanQuoteResponse> quoteLoan(
+            @Parameter(description = "Loan amount") @RequestParam BigDecimal amount,
+            @Parameter(description = "Interest rate (0.1 - 0.5)") @RequestParam BigDecimal interestRate,
+            @Parameter(description = "Number of installments (6, 9, 12 or 24)") @RequestParam Integer numberOfInstallments) {
+        LoanQuoteResponse quote = loanQuoteService.quoteLoan(amount, interestRate, numberOfInstallments);
+        return ResponseEntity.ok(quote);
     }
 
     @GetMapping("/{loanId}/installments")
     @Operation(summary = "List Installments", description = "List installments for a given loan")
     public ResponseEntity<List<InstallmentResponse>> listInstallments(
-            @Parameter(description = "Loan ID") @PathVariable Long loanId) {
+            @Parameter(description = "Loan ID") @PathVariable Long loanId,
+            WebRequest webRequest) {
+        LoanScheduleVersion version = loanService.findScheduleVersion(loanId);
+        if (webRequest.checkNotModified(version.eTag())) {
+            return null;
+        }
         List<InstallmentResponse> installments = loanService.listInstallments(loanId);
-        return ResponseEntity.ok(installments);
+        return ResponseEntity.ok()
+                .eTag(version.eTag())
+                .cacheControl(version.isPaid() ? PAID_LOAN : REVALIDATE)
+                .body(installments);
     }
 
     @PostMapping("/{loanId}/pay")
     @Operation(summary = "Pay Loan", description = "Pay installments for a given loan")
     public ResponseEntity<PaymentResultResponse> payLoan(
             @Parameter(description = "Loan ID") @PathVariable Long loanId,
+            @Parameter(description = "Client-chosen key; retries with the same key return the first response")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody PayLoanRequest request) {
-        PaymentResultResponse response = paymentService.payLoan(loanId, request);
+        if (idempotencyKey != null) {
+            PaymentResultResponse response = idempotentPaymentService.payLoan(idempotencyKey, loanId, request);
+            readYourWrites.pinCurrentUser();
+            return ResponseEntity.ok(response);
+        }
+        Long customerId = loanService.findCustomerIdForLoan(loanId);
+        PaymentResultResponse response = writeExecutor.execute(customerId, () -> paymentService.payLoan(loanId, request));
+        readYourWrites.pinCurrentUser();
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{loanId}/payment-quote")
+    @Operation(summary = "Quote Payment",
+            description = "Preview what paying the given amount today would settle, and the full payoff amount, without paying")
+    public ResponseEntity<PaymentQuoteResponse> quotePayment(
+            @Parameter(description = "Loan ID") @PathVariable Long loanId,
+            @Parameter(description = "Amount to pay") @RequestParam BigDecimal amount) {
+        PaymentQuoteResponse quote = loanQuoteService.quotePayment(loanId, amount);
+        return ResponseEntity.ok(quote);
+    }
+
+    @PostMapping("/payments/batch")
+    @Operation(summary = "Pay Loans (batch)",
+            description = "Settle up to 5000 loan payments in chunked transactions, with a result or error for each item")
+    public ResponseEntity<BatchPaymentResponse> payLoans(@Valid @RequestBody BatchPaymentRequest request) {
+        BatchPaymentResponse response = batchPaymentService.payLoans(request);
+        readYourWrites.pinCurrentUser();
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+}
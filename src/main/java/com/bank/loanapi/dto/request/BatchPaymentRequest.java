@@ -0,0 +1,34 @@
+package com.bank.loanapi.dto.request;
+
+import com.bank.loanapi.money.Money;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchPaymentRequest {
+
+    @NotEmpty(message = "At least one payment is required")
+    @Size(max = 5000, message = "At most 5000 payments can be sent in one batch")
+    private List<@Valid @NotNull PaymentItem> payments;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class PaymentItem {
+
+        @NotNull(message = "Loan ID is required")
+        private Long loanId;
+
+        @NotNull(message = "Amount is required")
+        @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+        @DecimalMax(value = Money.MAX_AMOUNT, message = "Amount cannot exceed " + Money.MAX_AMOUNT)
+        private BigDecimal amount;
+    }
+}
@@ -0,0 +1,53 @@
+package com.bank.loanapi.dto.request;
+
+import com.bank.loanapi.money.Money;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One NDJSON line of a bulk import. Without a customerId a new customer is created from the name, surname
+ * and credit limit; with one, the loans are added to that existing customer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkImportRecord {
+
+    private Long customerId;
+
+    @Size(max = 255, message = "Name must be at most 255 characters")
+    private String name;
+
+    @Size(max = 255, message = "Surname must be at most 255 characters")
+    private String surname;
+
+    @DecimalMin(value = "0.00", message = "Credit limit cannot be negative")
+    @DecimalMax(value = Money.MAX_AMOUNT, message = "Credit limit cannot exceed " + Money.MAX_AMOUNT)
+    private BigDecimal creditLimit;
+
+    private List<@Valid @NotNull LoanItem> loans;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class LoanItem {
+
+        @NotNull(message = "Amount is required")
+        @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+        @DecimalMax(value = Money.MAX_AMOUNT, message = "Amount cannot exceed " + Money.MAX_AMOUNT)
+        private BigDecimal amount;
+
+        @NotNull(message = "Interest rate is required")
+        @DecimalMin(value = "0.1", message = "Interest rate must be at least 0.1")
+        @DecimalMax(value = "0.5", message = "Interest rate cannot exceed 0.5")
+        private BigDecimal interestRate;
+
+        @NotNull(message = "Number of installments is required")
+        private Integer numberOfInstallments;
+    }
+}
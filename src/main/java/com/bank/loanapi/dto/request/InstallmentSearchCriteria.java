@@ -0,0 +1,23 @@
+package com.bank.loanapi.dto.request;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InstallmentSearchCriteria {
+    private Long customerId;
+    private Long loanId;
+    private Boolean isPaid;
+    // Unpaid and due before today
+    private Boolean overdue;
+    private LocalDate dueFrom;
+    private LocalDate dueTo;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    // Installment count of the loan
+    private Integer numberOfInstallments;
+}
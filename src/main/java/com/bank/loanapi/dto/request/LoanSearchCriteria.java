@@ -0,0 +1,23 @@
+package com.bank.loanapi.dto.request;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanSearchCriteria {
+    private Long customerId;
+    private Boolean isPaid;
+    private Integer numberOfInstallments;
+    private LocalDate createdFrom;
+    private LocalDate createdTo;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    // Next due date range; overdue means unpaid with the next installment due before today
+    private LocalDate dueFrom;
+    private LocalDate dueTo;
+    private Boolean overdue;
+}
@@ -1,5 +1,6 @@
 package com.bank.loanapi.dto.request;
 
+import com.bank.loanapi.money.Money;
 import jakarta.validation.constraints.*;
 import lombok.*;
 import java.math.BigDecimal;
@@ -12,5 +13,6 @@ public class PayLoanRequest {
 
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @DecimalMax(value = Money.MAX_AMOUNT, message = "Amount cannot exceed " + Money.MAX_AMOUNT)
     private BigDecimal amount;
 }
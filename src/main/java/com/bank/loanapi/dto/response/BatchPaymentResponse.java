@@ -0,0 +1,26 @@
+package com.bank.loanapi.dto.response;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchPaymentResponse {
+    private Integer succeeded;
+    private Integer failed;
+    private List<ItemResult> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ItemResult {
+        private Integer index;
+        private Long loanId;
+        private String status; // SUCCESS, FAILED
+        private PaymentResultResponse payment;
+        private String error;
+    }
+}
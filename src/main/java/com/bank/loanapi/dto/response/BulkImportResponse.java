@@ -0,0 +1,25 @@
+package com.bank.loanapi.dto.response;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkImportResponse {
+    private Long linesRead;
+    private Long customersCreated;
+    private Long loansCreated;
+    private Long rejected;
+    private List<RejectedLine> rejectedLines; // first 1000 rejections only
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RejectedLine {
+        private Long lineNumber;
+        private String reason;
+    }
+}
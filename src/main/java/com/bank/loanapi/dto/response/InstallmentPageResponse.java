@@ -0,0 +1,15 @@
+package com.bank.loanapi.dto.response;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InstallmentPageResponse {
+    private List<InstallmentResponse> installments;
+    private Integer size;
+    private Boolean hasMore;
+    private String nextCursor;
+}
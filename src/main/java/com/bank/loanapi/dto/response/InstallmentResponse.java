@@ -1,7 +1,7 @@
 package com.bank.loanapi.dto.response;
 
+import com.bank.loanapi.money.Money;
 import lombok.*;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Data
@@ -11,10 +11,12 @@ import java.time.LocalDate;
 public class InstallmentResponse {
     private Long id;
     private Long loanId;
-    private BigDecimal amount;
-    private BigDecimal paidAmount;
+    private Money amount;
+    private Money paidAmount;
     private LocalDate dueDate;
     private LocalDate paymentDate;
     private Boolean isPaid;
+    private Money accruedPenalty;
+    private LocalDate penaltyAccruedOn;
     private Integer installmentNumber;
 }
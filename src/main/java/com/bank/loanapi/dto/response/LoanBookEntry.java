@@ -0,0 +1,27 @@
+package com.bank.loanapi.dto.response;
+
+import com.bank.loanapi.money.Money;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanBookEntry {
+    private Long id;
+    private Long customerId;
+    private Money loanAmount;
+    private Integer numberOfInstallments;
+    private BigDecimal interestRate;
+    private LocalDateTime createDate;
+    private Boolean isPaid;
+    private Integer paidInstallments;
+    private Money remainingAmount;
+    private LocalDate nextDueDate;
+    private Money penaltiesPaid;
+    private List<InstallmentResponse> installments;
+}
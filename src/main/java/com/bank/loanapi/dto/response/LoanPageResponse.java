@@ -0,0 +1,15 @@
+package com.bank.loanapi.dto.response;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanPageResponse {
+    private List<LoanResponse> loans;
+    private Integer size;
+    private Boolean hasMore;
+    private String nextCursor;
+}
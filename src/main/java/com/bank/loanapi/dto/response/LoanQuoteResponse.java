@@ -0,0 +1,29 @@
+package com.bank.loanapi.dto.response;
+
+import com.bank.loanapi.money.Money;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanQuoteResponse {
+    private Money loanAmount;
+    private BigDecimal interestRate;
+    private Integer numberOfInstallments;
+    private Money totalAmount;
+    private List<ScheduledInstallment> installments;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ScheduledInstallment {
+        private Integer installmentNumber;
+        private LocalDate dueDate;
+        private Money amount;
+    }
+}
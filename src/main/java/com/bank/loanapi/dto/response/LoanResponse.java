@@ -1,7 +1,9 @@
 package com.bank.loanapi.dto.response;
 
+import com.bank.loanapi.money.Money;
 import lombok.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
@@ -12,12 +14,24 @@ public class LoanResponse {
     private Long id;
     private Long customerId;
     private String customerName;
-    private BigDecimal loanAmount;
+    private Money loanAmount;
     private Integer numberOfInstallments;
     private BigDecimal interestRate;
     private LocalDateTime createDate;
     private Boolean isPaid;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
     private Integer paidInstallments;
     private Integer remainingInstallments;
+    private Money remainingAmount;
+    private LocalDate nextDueDate;
+    private Money penaltiesPaid;
+
+    // Projection used by the repository queries; the total is rounded the same way loan creation reserves it
+    public LoanResponse(Long id, Long customerId, String customerName, Money loanAmount, Integer numberOfInstallments,
+                        BigDecimal interestRate, LocalDateTime createDate, Boolean isPaid, Integer paidInstallments,
+                        Money remainingAmount, LocalDate nextDueDate, Money penaltiesPaid) {
+        this(id, customerId, customerName, loanAmount, numberOfInstallments, interestRate, createDate, isPaid,
+                loanAmount.multiply(BigDecimal.ONE.add(interestRate)), paidInstallments,
+                numberOfInstallments - paidInstallments, remainingAmount, nextDueDate, penaltiesPaid);
+    }
 }
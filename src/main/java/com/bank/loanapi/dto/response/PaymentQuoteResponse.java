@@ -0,0 +1,17 @@
+package com.bank.loanapi.dto.response;
+
+import com.bank.loanapi.money.Money;
+import lombok.*;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentQuoteResponse {
+    private Long loanId;
+    private LocalDate quoteDate;
+    private Money amount;
+    private PaymentResultResponse payment;
+    private Money payoffAmount; // settles every unpaid installment on the quote date
+}
@@ -1,7 +1,7 @@
 package com.bank.loanapi.dto.response;
 
+import com.bank.loanapi.money.Money;
 import lombok.*;
-import java.math.BigDecimal;
 import java.util.List;
 
 @Data
@@ -10,9 +10,9 @@ import java.util.List;
 @Builder
 public class PaymentResultResponse {
     private Integer installmentsPaid;
-    private BigDecimal totalAmountSpent;
+    private Money totalAmountSpent;
     private Boolean isLoanFullyPaid;
-    private BigDecimal remainingLoanAmount;
+    private Money remainingLoanAmount;
     private List<InstallmentPaymentDetail> paidInstallments;
 
     @Data
@@ -21,9 +21,9 @@ public class PaymentResultResponse {
     @Builder
     public static class InstallmentPaymentDetail {
         private Long installmentId;
-        private BigDecimal originalAmount;
-        private BigDecimal paidAmount;
-        private BigDecimal discountOrPenalty;
+        private Money originalAmount;
+        private Money paidAmount;
+        private Money discountOrPenalty;
         private String paymentType; // EARLY, ON_TIME, LATE
     }
 }
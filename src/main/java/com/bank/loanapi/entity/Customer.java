@@ -1,20 +1,26 @@
 package com.bank.loanapi.entity;
 
+import com.bank.loanapi.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
-import java.math.BigDecimal;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "customers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "customers")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Customer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -24,20 +30,25 @@ public class Customer {
     private String surname;
 
     @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal creditLimit;
+    private Money creditLimit;
 
     @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal usedCreditLimit;
+    private Money usedCreditLimit;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 
     @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @Builder.Default
     private List<Loan> loans = new ArrayList<>();
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
-    public BigDecimal getAvailableCreditLimit() {
-        return creditLimit.subtract(usedCreditLimit);
+    public Money getAvailableCreditLimit() {
+        return creditLimit.minus(usedCreditLimit);
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.bank.loanapi.entity;
+
+import com.bank.loanapi.money.Money;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+import java.time.LocalDateTime;
+
+/**
+ * Stored outcome of a payment made with an Idempotency-Key. Written once, in the same transaction as the
+ * payment, and removed by the cleanup job after the retention period.
+ */
+@Entity
+@Table(name = "idempotency_records")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord implements Persistable<String> {
+    @Id
+    @Column(name = "scoped_key", length = 320)
+    private String id;
+
+    @Column(nullable = false)
+    private Long loanId;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private Money amount;
+
+    @Lob
+    @Column(nullable = false)
+    private String response;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Assigned ids would make save() merge over an existing row; records are only ever inserted
+    @Transient
+    @Builder.Default
+    private boolean persisted = false;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
@@ -1,21 +1,28 @@
 package com.bank.loanapi.entity;
 
+import com.bank.loanapi.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+// Composite indexes for the customer listing filters and the cross-customer overdue search
 @Entity
-@Table(name = "loans")
+@Table(name = "loans", indexes = {
+        @Index(name = "idx_loans_customer_paid_installments", columnList = "customer_id, is_paid, number_of_installment"),
+        @Index(name = "idx_loans_paid_next_due", columnList = "is_paid, next_due_date")})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Loan {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loans_seq")
+    @SequenceGenerator(name = "loans_seq", sequenceName = "loans_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -23,7 +30,7 @@ public class Loan {
     private Customer customer;
 
     @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal loanAmount;
+    private Money loanAmount;
 
     @Column(nullable = false)
     private Integer numberOfInstallment;
@@ -37,6 +44,31 @@ public class Loan {
     @Column(nullable = false, precision = 5, scale = 2)
     private BigDecimal interestRate;
 
+    // Aggregates of the installments, kept up to date on creation and payment so loan summaries never read the
+    // schedule; the reconciliation job checks them against the installment rows
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer paidInstallmentCount = 0;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Money remainingAmount = Money.ZERO;
+
+    @Column
+    private LocalDate nextDueDate;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Money penaltiesPaid = Money.ZERO;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "loan", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @OrderBy("dueDate ASC")
     @Builder.Default
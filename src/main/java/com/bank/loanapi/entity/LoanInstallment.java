@@ -1,19 +1,26 @@
 package com.bank.loanapi.entity;
 
+import com.bank.loanapi.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
-import java.math.BigDecimal;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDate;
 
+// A loan's unpaid schedule in due date order, unpaid installments by due date across all loans, and every
+// schedule in the loan book's export order
 @Entity
-@Table(name = "loan_installments")
+@Table(name = "loan_installments", indexes = {
+        @Index(name = "idx_installments_loan_paid_due", columnList = "loan_id, is_paid, due_date"),
+        @Index(name = "idx_installments_loan_due", columnList = "loan_id, due_date, id"),
+        @Index(name = "idx_installments_paid_due", columnList = "is_paid, due_date")})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class LoanInstallment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_installments_seq")
+    @SequenceGenerator(name = "loan_installments_seq", sequenceName = "loan_installments_seq", allocationSize = 100)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -21,10 +28,10 @@ public class LoanInstallment {
     private Loan loan;
 
     @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
 
     @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal paidAmount;
+    private Money paidAmount;
 
     @Column(nullable = false)
     private LocalDate dueDate;
@@ -34,4 +41,18 @@ public class LoanInstallment {
 
     @Column(nullable = false)
     private Boolean isPaid;
-}
+
+    // Late penalty as of penaltyAccruedOn, written by the nightly accrual job; payments still price on the day
+    @Column(nullable = false, precision = 15, scale = 2)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Money accruedPenalty = Money.ZERO;
+
+    @Column
+    private LocalDate penaltyAccruedOn;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+}
\ No newline at end of file
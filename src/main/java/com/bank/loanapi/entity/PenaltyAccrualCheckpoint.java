@@ -0,0 +1,30 @@
+package com.bank.loanapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the penalty accrual run for one day: every overdue installment with an id up to
+ * {@code lastInstallmentId} has been accrued and committed.
+ */
+@Entity
+@Table(name = "penalty_accrual_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PenaltyAccrualCheckpoint {
+    @Id
+    private LocalDate accrualDate;
+
+    @Column(nullable = false)
+    private Long lastInstallmentId;
+
+    @Column(nullable = false)
+    private Boolean completed;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,7 @@
+package com.bank.loanapi.exception;
+
+public class WriteQueueFullException extends RuntimeException {
+    public WriteQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,66 @@
+package com.bank.loanapi.metrics;
+
+import com.bank.loanapi.dto.response.PaymentResultResponse.InstallmentPaymentDetail;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Business counters. Each is a striped {@link LongAdder} read by the registry on scrape, so hot write paths
+ * do not contend on a single counter; increments made inside a transaction only count once it commits.
+ */
+@Component
+public class LoanMetrics {
+
+    private static final List<String> PAYMENT_TYPES = List.of("EARLY", "ON_TIME", "LATE");
+
+    private final LongAdder loansCreated = new LongAdder();
+    private final Map<String, LongAdder> installmentsPaid = Map.of(
+            "EARLY", new LongAdder(),
+            "ON_TIME", new LongAdder(),
+            "LATE", new LongAdder());
+
+    public LoanMetrics(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("loans.created", loansCreated, LongAdder::sum)
+                .description("Loans created")
+                .register(meterRegistry);
+        for (String paymentType : PAYMENT_TYPES) {
+            FunctionCounter.builder("installments.paid", installmentsPaid.get(paymentType), LongAdder::sum)
+                    .description("Installments paid, by early, on-time or late payment")
+                    .tag("type", paymentType)
+                    .register(meterRegistry);
+        }
+    }
+
+    public void loansCreated(int count) {
+        afterCommit(() -> loansCreated.add(count));
+    }
+
+    public void installmentsPaid(List<InstallmentPaymentDetail> paidInstallments) {
+        afterCommit(() -> paidInstallments.forEach(detail -> {
+            LongAdder counter = installmentsPaid.get(detail.getPaymentType());
+            if (counter != null) {
+                counter.increment();
+            }
+        }));
+    }
+
+    private static void afterCommit(Runnable increment) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment.run();
+            }
+        });
+    }
+}
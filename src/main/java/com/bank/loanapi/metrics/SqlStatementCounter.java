@@ -0,0 +1,44 @@
+package com.bank.loanapi.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the SQL statements Hibernate prepares on behalf of the current unit of work (usually one HTTP
+ * request). Registered as Hibernate's statement inspector; counting only happens while a counter is open on
+ * the thread, and work handed to another thread can carry the counter along with {@link #attach}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<LongAdder> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        LongAdder statements = CURRENT.get();
+        if (statements != null) {
+            statements.increment();
+        }
+        return sql;
+    }
+
+    public static LongAdder start() {
+        LongAdder statements = new LongAdder();
+        CURRENT.set(statements);
+        return statements;
+    }
+
+    public static LongAdder current() {
+        return CURRENT.get();
+    }
+
+    public static void attach(LongAdder statements) {
+        if (statements != null) {
+            CURRENT.set(statements);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,39 @@
+package com.bank.loanapi.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Development aid: reports the number of SQL statements a request issued in the {@value #HEADER} response
+ * header. The header is written just before the body, so it covers all work done by the controller.
+ */
+@RestControllerAdvice
+@ConditionalOnProperty(name = "sql.statements.response-header", havingValue = "true")
+public class StatementCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String HEADER = "X-SQL-Statements";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        LongAdder statements = SqlStatementCounter.current();
+        if (statements != null) {
+            response.getHeaders().set(HEADER, Long.toString(statements.sum()));
+        }
+        return body;
+    }
+}
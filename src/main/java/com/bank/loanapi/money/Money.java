@@ -0,0 +1,146 @@
+package com.bank.loanapi.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable amount of money held as a long number of cents. Every operation that can produce a fraction of a
+ * cent rounds half-up (ties away from zero), matching {@code setScale(2, RoundingMode.HALF_UP)}; the arithmetic
+ * is done on longs and only falls back to BigDecimal when an intermediate product would overflow.
+ * Serializes to JSON as a plain number with two decimals.
+ */
+@Schema(type = "number", example = "200.00")
+public final class Money implements Comparable<Money>, Serializable {
+
+    public static final Money ZERO = new Money(0);
+
+    /** Largest amount a request may carry: the 13 integer digits the amount columns hold. */
+    public static final String MAX_AMOUNT = "9999999999999.99";
+
+    private static final int SCALE = 2;
+    private static final int MAX_FAST_SCALE = 9;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L};
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Rounds half-up to cents; throws ArithmeticException when the amount does not fit in a long number of cents.
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        int scale = amount.scale();
+        if (scale >= 0 && scale <= SCALE && amount.precision() <= 16) {
+            return ofCents(amount.scaleByPowerOfTen(scale).longValue() * POWERS_OF_TEN[SCALE - scale]);
+        }
+        return ofCents(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public long cents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money multiply(long multiplier) {
+        return ofCents(Math.multiplyExact(cents, multiplier));
+    }
+
+    /**
+     * This amount times {@code numerator / denominator}, rounded half-up to cents.
+     */
+    public Money multiply(long numerator, long denominator) {
+        if (denominator <= 0) {
+            throw new ArithmeticException("Denominator must be positive");
+        }
+        long product;
+        try {
+            product = Math.multiplyExact(cents, numerator);
+        } catch (ArithmeticException overflow) {
+            return of(BigDecimal.valueOf(cents, SCALE)
+                    .multiply(BigDecimal.valueOf(numerator))
+                    .divide(BigDecimal.valueOf(denominator), SCALE, RoundingMode.HALF_UP));
+        }
+        return ofCents(divideHalfUp(product, denominator));
+    }
+
+    /**
+     * This amount times {@code factor}, rounded half-up to cents.
+     */
+    public Money multiply(BigDecimal factor) {
+        int scale = factor.scale();
+        if (scale >= 0 && scale <= MAX_FAST_SCALE && factor.precision() <= 18) {
+            return multiply(factor.scaleByPowerOfTen(scale).longValue(), POWERS_OF_TEN[scale]);
+        }
+        return of(toBigDecimal().multiply(factor));
+    }
+
+    /**
+     * This amount split into {@code parts}, rounded half-up to cents.
+     */
+    public Money divide(int parts) {
+        return multiply(1, parts);
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof Money money && cents == money.cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    // Rounds ties away from zero, like RoundingMode.HALF_UP; divisor is positive
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,12 @@
+package com.bank.loanapi.repository;
+
+/**
+ * Version of a customer's loan list. Loans are never deleted and every change to one bumps its version, so the
+ * loan count and the version sum only grow and together identify the state of the list.
+ */
+public record CustomerLoansVersion(Long loanCount, Long versionSum) {
+
+    public String eTag() {
+        return "loans-" + loanCount + "-" + versionSum;
+    }
+}
@@ -0,0 +1,16 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.money.Money;
+
+public interface CustomerRepositoryCustom {
+
+    /**
+     * Reserves credit in a single statement; returns 0 when the amount would exceed the credit limit.
+     */
+    int reserveCredit(Long customerId, Money amount);
+
+    /**
+     * Releases previously reserved credit; returns 0 when less than the amount is in use.
+     */
+    int releaseCredit(Long customerId, Money amount);
+}
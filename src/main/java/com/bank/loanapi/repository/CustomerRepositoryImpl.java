@@ -0,0 +1,77 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.entity.Customer;
+import com.bank.loanapi.money.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Credit reservations as conditional native updates, native because JPQL does not allow arithmetic on converted
+ * Money attributes. The updates declare a query space that names no table: with customers declared Hibernate would
+ * evict the whole customers cache region on every update, and with none declared every region. Only the updated
+ * customer's cache entry is locked instead, as an update through Hibernate locks it, until the transaction
+ * completes: a load that read the old row before then cannot put it back in the cache.
+ */
+public class CustomerRepositoryImpl implements CustomerRepositoryCustom {
+
+    private static final String CREDIT_QUERY_SPACE = "customer_credit";
+
+    private static final String RESERVE = "UPDATE customers SET used_credit_limit = used_credit_limit + :amount, " +
+            "version = version + 1 WHERE id = :customerId AND used_credit_limit + :amount <= credit_limit";
+
+    private static final String RELEASE = "UPDATE customers SET used_credit_limit = used_credit_limit - :amount, " +
+            "version = version + 1 WHERE id = :customerId AND used_credit_limit >= :amount";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int reserveCredit(Long customerId, Money amount) {
+        return updateUsedCreditLimit(RESERVE, customerId, amount);
+    }
+
+    @Override
+    public int releaseCredit(Long customerId, Money amount) {
+        return updateUsedCreditLimit(RELEASE, customerId, amount);
+    }
+
+    private int updateUsedCreditLimit(String sql, Long customerId, Money amount) {
+        int updated = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(CREDIT_QUERY_SPACE)
+                .setParameter("customerId", customerId)
+                .setParameter("amount", amount.toBigDecimal())
+                .executeUpdate();
+        if (updated > 0) {
+            lockCachedCustomer(customerId);
+        }
+        return updated;
+    }
+
+    private void lockCachedCustomer(Long customerId) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getFactory().getRuntimeMetamodels().getMappingMetamodel()
+                .getEntityDescriptor(Customer.class);
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        Object key = cache.generateCacheKey(customerId, persister, session.getFactory(), session.getTenantIdentifier());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.evict(key);
+            return;
+        }
+        // Released with the time it was released at; loads that began earlier are still refused
+        SoftLock lock = cache.lockItem(session, key, null);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.unlockItem(session, key, lock);
+            }
+        });
+    }
+}
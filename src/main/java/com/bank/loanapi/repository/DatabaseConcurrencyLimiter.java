@@ -0,0 +1,100 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.exception.DatabaseBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of threads working against the database at the connection pool size. With virtual
+ * threads there is no request thread pool to bound concurrency, so without this every request would wait
+ * on the pool and time out there; here they queue fairly on a semaphore instead.
+ *
+ * <p>A permit is taken at the outermost transactional method, repository call or transaction template on a
+ * thread and held until it returns, so a thread never waits for a permit while holding a connection.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2) // outside the retry and transaction interceptors
+@RequiredArgsConstructor
+public class DatabaseConcurrencyLimiter {
+
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${db.limiter.max-concurrency:10}")
+    private int maxConcurrency;
+
+    @Value("${db.limiter.acquire-timeout:5s}")
+    private Duration acquireTimeout;
+
+    private Semaphore permits;
+    private Timer waitTimer;
+    private Counter rejections;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(maxConcurrency, true);
+        waitTimer = Timer.builder("db.limiter.wait")
+                .description("Time spent waiting for a database permit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rejections = Counter.builder("db.limiter.rejected")
+                .description("Requests that gave up waiting for a database permit")
+                .register(meterRegistry);
+        Gauge.builder("db.limiter.queue", permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a database permit")
+                .register(meterRegistry);
+        Gauge.builder("db.limiter.active", permits, semaphore -> maxConcurrency - semaphore.availablePermits())
+                .description("Database permits in use")
+                .register(meterRegistry);
+    }
+
+    @Around("@within(org.springframework.transaction.annotation.Transactional)"
+            + " || @annotation(org.springframework.transaction.annotation.Transactional)"
+            + " || this(org.springframework.data.repository.Repository)"
+            + " || target(org.springframework.transaction.support.TransactionOperations)")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        int[] depth = DEPTH.get();
+        if (depth[0] > 0) {
+            return proceedNested(joinPoint, depth);
+        }
+
+        long startNanos = System.nanoTime();
+        boolean acquired = permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        waitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            rejections.increment();
+            throw new DatabaseBusyException("Database is busy, please retry");
+        }
+
+        try {
+            return proceedNested(joinPoint, depth);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static Object proceedNested(ProceedingJoinPoint joinPoint, int[] depth) throws Throwable {
+        depth[0]++;
+        try {
+            return joinPoint.proceed();
+        } finally {
+            depth[0]--;
+        }
+    }
+}
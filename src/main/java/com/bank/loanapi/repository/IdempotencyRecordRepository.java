@@ -0,0 +1,30 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Not read-only, so the lookup goes to the primary: a retry arriving within the replica lag must still find
+    // the record its first attempt committed
+    @Override
+    @Transactional
+    Optional<IdempotencyRecord> findById(String id);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Clears an expired record for a reused key that the periodic cleanup has not reached yet
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.createdAt < :cutoff")
+    int deleteByIdCreatedBefore(@Param("id") String id, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,12 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.money.Money;
+import java.time.LocalDate;
+
+/**
+ * An installment's columns with the id of its loan, as read by the loan book export.
+ */
+public record LoanBookInstallment(Long installmentId, Long loanId, Money amount, Money paidAmount, LocalDate dueDate,
+                                  LocalDate paymentDate, Boolean isPaid, Money accruedPenalty,
+                                  LocalDate penaltyAccruedOn) {
+}
@@ -0,0 +1,15 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.money.Money;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A loan's columns, as read by the loan book export.
+ */
+public record LoanBookLoan(Long loanId, Long customerId, Money loanAmount, Integer numberOfInstallments,
+                           BigDecimal interestRate, LocalDateTime createDate, Boolean isPaid,
+                           Integer paidInstallments, Money remainingAmount, LocalDate nextDueDate,
+                           Money penaltiesPaid) {
+}
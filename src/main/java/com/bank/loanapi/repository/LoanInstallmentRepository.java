@@ -1,6 +1,7 @@
 package com.bank.loanapi.repository;
 
 import com.bank.loanapi.entity.LoanInstallment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,16 +10,18 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Repository
-public interface LoanInstallmentRepository extends JpaRepository<LoanInstallment, Long> {
+public interface LoanInstallmentRepository extends JpaRepository<LoanInstallment, Long>, LoanInstallmentRepositoryCustom {
 
-    List<LoanInstallment> findByLoanIdOrderByDueDateAsc(Long loanId);
+    // Keyset page in id order, so each page is a range scan on the primary key however deep the run is
+    @Query("SELECT new com.bank.loanapi.repository.OverdueInstallment(li.id, li.amount, li.dueDate) " +
+            "FROM LoanInstallment li WHERE li.id > :afterId AND li.isPaid = false AND li.dueDate < :asOf ORDER BY li.id")
+    List<OverdueInstallment> findOverdueAfter(@Param("afterId") Long afterId, @Param("asOf") LocalDate asOf, Limit limit);
 
-    @Query("SELECT li FROM LoanInstallment li WHERE li.loan.id = :loanId AND li.isPaid = false ORDER BY li.dueDate ASC")
-    List<LoanInstallment> findUnpaidInstallmentsByLoanId(@Param("loanId") Long loanId);
-
-    @Query("SELECT li FROM LoanInstallment li WHERE li.loan.id = :loanId AND li.dueDate <= :maxDueDate AND li.isPaid = false ORDER BY li.dueDate ASC")
-    List<LoanInstallment> findPayableInstallments(@Param("loanId") Long loanId, @Param("maxDueDate") LocalDate maxDueDate);
-
-    @Query("SELECT COUNT(li) FROM LoanInstallment li WHERE li.loan.id = :loanId AND li.isPaid = true")
-    Integer countPaidInstallmentsByLoanId(@Param("loanId") Long loanId);
-}
\ No newline at end of file
+    // The schedules of a loan book chunk, a range of idx_installments_loan_due already in the order asked for
+    @Query("SELECT new com.bank.loanapi.repository.LoanBookInstallment(" +
+            "li.id, li.loan.id, li.amount, li.paidAmount, li.dueDate, li.paymentDate, li.isPaid, li.accruedPenalty, " +
+            "li.penaltyAccruedOn) " +
+            "FROM LoanInstallment li WHERE li.loan.id > :afterId AND li.loan.id <= :lastId " +
+            "ORDER BY li.loan.id, li.dueDate, li.id")
+    List<LoanBookInstallment> findLoanBookInstallments(@Param("afterId") Long afterId, @Param("lastId") Long lastId);
+}
@@ -0,0 +1,10 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.dto.request.InstallmentSearchCriteria;
+import com.bank.loanapi.dto.response.InstallmentResponse;
+import java.util.List;
+
+public interface LoanInstallmentRepositoryCustom {
+
+    List<InstallmentResponse> findInstallmentPage(InstallmentSearchCriteria criteria, Long afterId, int limit);
+}
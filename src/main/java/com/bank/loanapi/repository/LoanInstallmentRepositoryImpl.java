@@ -0,0 +1,86 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.dto.request.InstallmentSearchCriteria;
+import com.bank.loanapi.dto.response.InstallmentResponse;
+import com.bank.loanapi.entity.Loan;
+import com.bank.loanapi.entity.LoanInstallment;
+import com.bank.loanapi.money.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset-paginated installment search across all loans, in installment id order. Paid status and due
+ * dates are the leading columns of the installment indexes, so the common searches are index range scans.
+ */
+public class LoanInstallmentRepositoryImpl implements LoanInstallmentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<InstallmentResponse> findInstallmentPage(InstallmentSearchCriteria criteria, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<InstallmentResponse> query = cb.createQuery(InstallmentResponse.class);
+        Root<LoanInstallment> installment = query.from(LoanInstallment.class);
+        Join<LoanInstallment, Loan> loan = installment.join("loan");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(installment.get("id"), afterId));
+        }
+        if (criteria.getCustomerId() != null) {
+            predicates.add(cb.equal(loan.get("customer").get("id"), criteria.getCustomerId()));
+        }
+        if (criteria.getLoanId() != null) {
+            predicates.add(cb.equal(loan.get("id"), criteria.getLoanId()));
+        }
+        if (criteria.getIsPaid() != null) {
+            predicates.add(cb.equal(installment.get("isPaid"), criteria.getIsPaid()));
+        }
+        if (Boolean.TRUE.equals(criteria.getOverdue())) {
+            predicates.add(cb.isFalse(installment.get("isPaid")));
+            predicates.add(cb.lessThan(installment.get("dueDate"), LocalDate.now()));
+        }
+        if (criteria.getDueFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(installment.get("dueDate"), criteria.getDueFrom()));
+        }
+        if (criteria.getDueTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(installment.get("dueDate"), criteria.getDueTo()));
+        }
+        if (criteria.getMinAmount() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(installment.get("amount"),
+                    Money.of(criteria.getMinAmount().setScale(2, RoundingMode.CEILING))));
+        }
+        if (criteria.getMaxAmount() != null) {
+            predicates.add(cb.lessThanOrEqualTo(installment.get("amount"),
+                    Money.of(criteria.getMaxAmount().setScale(2, RoundingMode.FLOOR))));
+        }
+        if (criteria.getNumberOfInstallments() != null) {
+            predicates.add(cb.equal(loan.get("numberOfInstallment"), criteria.getNumberOfInstallments()));
+        }
+
+        // The installment number needs the rest of the schedule, so search results leave it out
+        query.select(cb.construct(InstallmentResponse.class,
+                        installment.get("id"),
+                        loan.get("id"),
+                        installment.get("amount"),
+                        installment.get("paidAmount"),
+                        installment.get("dueDate"),
+                        installment.get("paymentDate"),
+                        installment.get("isPaid"),
+                        installment.get("accruedPenalty"),
+                        installment.get("penaltyAccruedOn"),
+                        cb.nullLiteral(Integer.class)))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(installment.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
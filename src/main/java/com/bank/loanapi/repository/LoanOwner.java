@@ -0,0 +1,7 @@
+package com.bank.loanapi.repository;
+
+/**
+ * A loan id with the id of the customer it belongs to.
+ */
+public record LoanOwner(Long loanId, Long customerId) {
+}
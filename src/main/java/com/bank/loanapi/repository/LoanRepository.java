@@ -1,24 +1,57 @@
 package com.bank.loanapi.repository;
 
+import com.bank.loanapi.dto.response.LoanResponse;
 import com.bank.loanapi.entity.Loan;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface LoanRepository extends JpaRepository<Loan, Long> {
+public interface LoanRepository extends JpaRepository<Loan, Long>, LoanRepositoryCustom {
 
-    List<Loan> findByCustomerId(Long customerId);
+    @Query("SELECT l FROM Loan l JOIN FETCH l.customer LEFT JOIN FETCH l.installments WHERE l.id = :id")
+    Optional<Loan> findByIdWithInstallments(@Param("id") Long id);
 
-    List<Loan> findByCustomerIdAndIsPaid(Long customerId, Boolean isPaid);
+    @Query("SELECT DISTINCT l FROM Loan l JOIN FETCH l.customer LEFT JOIN FETCH l.installments WHERE l.id IN :ids")
+    List<Loan> findAllWithInstallmentsByIdIn(@Param("ids") Collection<Long> ids);
 
-    @Query("SELECT l FROM Loan l LEFT JOIN FETCH l.installments WHERE l.id = :id")
-    Optional<Loan> findByIdWithInstallments(@Param("id") Long id);
+    @Query("SELECT l.customer.id FROM Loan l WHERE l.id = :loanId")
+    Optional<Long> findCustomerIdById(@Param("loanId") Long loanId);
+
+    @Query("SELECT new com.bank.loanapi.repository.LoanOwner(l.id, l.customer.id) FROM Loan l WHERE l.id IN :ids")
+    List<LoanOwner> findOwnersByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.bank.loanapi.repository.CustomerLoansVersion(COUNT(l), COALESCE(SUM(l.version), 0L)) " +
+            "FROM Loan l WHERE l.customer.id = :customerId")
+    CustomerLoansVersion findCustomerLoansVersion(@Param("customerId") Long customerId);
+
+    @Query("SELECT new com.bank.loanapi.repository.LoanScheduleVersion(" +
+            "l.customer.id, l.isPaid, l.version, COALESCE(SUM(i.version), 0L)) " +
+            "FROM Loan l LEFT JOIN l.installments i WHERE l.id = :loanId " +
+            "GROUP BY l.customer.id, l.isPaid, l.version")
+    Optional<LoanScheduleVersion> findScheduleVersion(@Param("loanId") Long loanId);
+
+    @Query("SELECT new com.bank.loanapi.dto.response.LoanResponse(" +
+            "l.id, c.id, CONCAT(c.name, ' ', c.surname), l.loanAmount, l.numberOfInstallment, l.interestRate, " +
+            "l.createDate, l.isPaid, l.paidInstallmentCount, l.remainingAmount, l.nextDueDate, l.penaltiesPaid) " +
+            "FROM Loan l JOIN l.customer c " +
+            "WHERE c.id = :customerId " +
+            "AND (:numberOfInstallments IS NULL OR l.numberOfInstallment = :numberOfInstallments) " +
+            "AND (:isPaid IS NULL OR l.isPaid = :isPaid) " +
+            "ORDER BY l.id")
+    List<LoanResponse> findLoanResponses(@Param("customerId") Long customerId,
+                                         @Param("numberOfInstallments") Integer numberOfInstallments,
+                                         @Param("isPaid") Boolean isPaid);
 
-    @Query("SELECT l FROM Loan l WHERE l.customer.id = :customerId AND l.numberOfInstallment = :numberOfInstallments")
-    List<Loan> findByCustomerIdAndNumberOfInstallments(@Param("customerId") Long customerId,
-                                                       @Param("numberOfInstallments") Integer numberOfInstallments);
-}
\ No newline at end of file
+    // Keyset chunk of the loan book in id order, a range scan on the primary key
+    @Query("SELECT new com.bank.loanapi.repository.LoanBookLoan(" +
+            "l.id, l.customer.id, l.loanAmount, l.numberOfInstallment, l.interestRate, l.createDate, l.isPaid, " +
+            "l.paidInstallmentCount, l.remainingAmount, l.nextDueDate, l.penaltiesPaid) " +
+            "FROM Loan l WHERE l.id > :afterId ORDER BY l.id")
+    List<LoanBookLoan> findLoanBookAfter(@Param("afterId") Long afterId, Limit limit);
+}
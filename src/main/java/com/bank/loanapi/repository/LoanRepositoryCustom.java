@@ -0,0 +1,10 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.dto.request.LoanSearchCriteria;
+import com.bank.loanapi.dto.response.LoanResponse;
+import java.util.List;
+
+public interface LoanRepositoryCustom {
+
+    List<LoanResponse> findLoanPage(LoanSearchCriteria criteria, Long afterId, int limit);
+}
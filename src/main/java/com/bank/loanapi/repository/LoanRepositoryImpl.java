@@ -0,0 +1,91 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.dto.request.LoanSearchCriteria;
+import com.bank.loanapi.dto.response.LoanResponse;
+import com.bank.loanapi.entity.Customer;
+import com.bank.loanapi.entity.Loan;
+import com.bank.loanapi.money.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset-paginated loan listing. Only the filters that are set become predicates, and rows are
+ * read in loan id order starting after the last id of the previous page. Without a customer id the
+ * search runs across all customers.
+ */
+public class LoanRepositoryImpl implements LoanRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<LoanResponse> findLoanPage(LoanSearchCriteria criteria, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LoanResponse> query = cb.createQuery(LoanResponse.class);
+        Root<Loan> loan = query.from(Loan.class);
+        Join<Loan, Customer> customer = loan.join("customer");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.getCustomerId() != null) {
+            predicates.add(cb.equal(customer.get("id"), criteria.getCustomerId()));
+        }
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(loan.get("id"), afterId));
+        }
+        if (criteria.getIsPaid() != null) {
+            predicates.add(cb.equal(loan.get("isPaid"), criteria.getIsPaid()));
+        }
+        if (criteria.getNumberOfInstallments() != null) {
+            predicates.add(cb.equal(loan.get("numberOfInstallment"), criteria.getNumberOfInstallments()));
+        }
+        if (criteria.getCreatedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(loan.get("createDate"), criteria.getCreatedFrom().atStartOfDay()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            predicates.add(cb.lessThan(loan.get("createDate"), criteria.getCreatedTo().plusDays(1).atStartOfDay()));
+        }
+        if (criteria.getMinAmount() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(loan.get("loanAmount"),
+                    Money.of(criteria.getMinAmount().setScale(2, RoundingMode.CEILING))));
+        }
+        if (criteria.getMaxAmount() != null) {
+            predicates.add(cb.lessThanOrEqualTo(loan.get("loanAmount"),
+                    Money.of(criteria.getMaxAmount().setScale(2, RoundingMode.FLOOR))));
+        }
+        if (criteria.getDueFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(loan.get("nextDueDate"), criteria.getDueFrom()));
+        }
+        if (criteria.getDueTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(loan.get("nextDueDate"), criteria.getDueTo()));
+        }
+        if (Boolean.TRUE.equals(criteria.getOverdue())) {
+            predicates.add(cb.isFalse(loan.get("isPaid")));
+            predicates.add(cb.lessThan(loan.get("nextDueDate"), LocalDate.now()));
+        }
+
+        query.select(cb.construct(LoanResponse.class,
+                        loan.get("id"),
+                        customer.get("id"),
+                        cb.concat(cb.concat(customer.get("name"), " "), customer.get("surname")),
+                        loan.get("loanAmount"),
+                        loan.get("numberOfInstallment"),
+                        loan.get("interestRate"),
+                        loan.get("createDate"),
+                        loan.get("isPaid"),
+                        loan.get("paidInstallmentCount"),
+                        loan.get("remainingAmount"),
+                        loan.get("nextDueDate"),
+                        loan.get("penaltiesPaid")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(loan.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,12 @@
+package com.bank.loanapi.repository;
+
+/**
+ * Version of a loan's installment schedule: the loan's own version, bumped by payments, and the sum of its
+ * installment versions, bumped by payments and penalty accrual.
+ */
+public record LoanScheduleVersion(Long customerId, Boolean isPaid, Long loanVersion, Long installmentVersionSum) {
+
+    public String eTag() {
+        return "installments-" + loanVersion + "-" + installmentVersionSum;
+    }
+}
@@ -0,0 +1,10 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.money.Money;
+import java.time.LocalDate;
+
+/**
+ * The columns the penalty accrual job needs from an overdue installment.
+ */
+public record OverdueInstallment(Long id, Money amount, LocalDate dueDate) {
+}
@@ -0,0 +1,35 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.entity.PenaltyAccrualCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface PenaltyAccrualCheckpointRepository extends JpaRepository<PenaltyAccrualCheckpoint, LocalDate> {
+
+    // Not read-only, so the lookup goes to the primary: a checkpoint missing from a lagging replica would be
+    // created again and restart the day from the first installment
+    @Override
+    @Transactional
+    Optional<PenaltyAccrualCheckpoint> findById(LocalDate accrualDate);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PenaltyAccrualCheckpoint c SET c.lastInstallmentId = :lastInstallmentId, c.updatedAt = :updatedAt " +
+            "WHERE c.accrualDate = :accrualDate")
+    int advance(@Param("accrualDate") LocalDate accrualDate, @Param("lastInstallmentId") Long lastInstallmentId,
+                @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PenaltyAccrualCheckpoint c SET c.completed = true, c.updatedAt = :updatedAt " +
+            "WHERE c.accrualDate = :accrualDate")
+    int markCompleted(@Param("accrualDate") LocalDate accrualDate, @Param("updatedAt") LocalDateTime updatedAt);
+}
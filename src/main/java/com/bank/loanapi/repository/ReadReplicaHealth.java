@@ -0,0 +1,50 @@
+package com.bank.loanapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Whether reads may go to the read replica. The replica is taken out as soon as a connection to it fails and
+ * put back by the next successful check, every {@code replica.health-check-interval}.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class ReadReplicaHealth {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource replicaDataSource;
+
+    private volatile boolean up = true;
+
+    public boolean isUp() {
+        return up;
+    }
+
+    public void markDown(SQLException cause) {
+        if (up) {
+            up = false;
+            log.warn("Read replica unavailable, reading from the primary until it recovers: {}", cause.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${replica.health-check-interval:PT5S}")
+    public void check() {
+        try (Connection connection = replicaDataSource.getConnection()) {
+            if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                throw new SQLException("Replica connection failed validation");
+            }
+            if (!up) {
+                up = true;
+                log.info("Read replica available again");
+            }
+        } catch (SQLException ex) {
+            markDown(ex);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.bank.loanapi.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Sends connections for read-only transactions to the read replica and everything else to the primary. Reads
+ * stay on the primary while the replica is down or the calling user is pinned by {@link ReadYourWrites}, and a
+ * replica connection that cannot be opened falls back to the primary.
+ *
+ * <p>The transaction's read-only flag is only known once it has begun, so this has to sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that defers fetching the
+ * connection until the first statement.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReadReplicaHealth replicaHealth;
+    private final ReadYourWrites readYourWrites;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadReplicaHealth replicaHealth,
+                                        ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaHealth = replicaHealth;
+        this.readYourWrites = readYourWrites;
+        this.primaryConnections = routedConnections(meterRegistry, "primary");
+        this.replicaConnections = routedConnections(meterRegistry, "replica");
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return routesToReplica(TransactionSynchronizationManager.isCurrentTransactionReadOnly(),
+                replicaHealth, readYourWrites) ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    static boolean routesToReplica(boolean readOnly, ReadReplicaHealth replicaHealth, ReadYourWrites readYourWrites) {
+        return readOnly && replicaHealth.isUp() && !readYourWrites.isCurrentUserPinned();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Target.REPLICA) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException ex) {
+                replicaHealth.markDown(ex);
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    private static Counter routedConnections(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("db.routing.connections")
+                .description("Connections handed out, by the database they were routed to")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
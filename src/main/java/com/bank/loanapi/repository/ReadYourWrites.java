@@ -0,0 +1,57 @@
+package com.bank.loanapi.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+
+/**
+ * Remembers which users wrote recently, so that their reads go to the primary until the read replica has had
+ * {@code replica.pin-window} to catch up. Does nothing when no replica is configured.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final long MAX_PINNED_USERS = 100_000;
+
+    @Value("${replica.datasource.url:}")
+    private String replicaUrl;
+
+    @Value("${replica.pin-window:5s}")
+    private Duration pinWindow;
+
+    // Username -> pinned until the entry expires
+    private Cache<String, Boolean> pinnedUsers;
+
+    @PostConstruct
+    void init() {
+        pinnedUsers = Caffeine.newBuilder()
+                .maximumSize(MAX_PINNED_USERS)
+                .expireAfterWrite(pinWindow)
+                .build();
+    }
+
+    /**
+     * Sends the calling user's reads to the primary for the pin window; call once a write has committed.
+     */
+    public void pinCurrentUser() {
+        String username = currentUsername();
+        if (username != null && !replicaUrl.isEmpty()) {
+            pinnedUsers.put(username, Boolean.TRUE);
+        }
+    }
+
+    public boolean isCurrentUserPinned() {
+        String username = currentUsername();
+        return username != null && pinnedUsers.getIfPresent(username) != null;
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || !authentication.isAuthenticated() ? null : authentication.getName();
+    }
+}
@@ -0,0 +1,45 @@
+package com.bank.loanapi.repository;
+
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps transactions that will be routed to the read replica out of the second-level cache. Rows read from a
+ * lagging replica are never cached, so primary transactions and pinned users only see cached rows that came
+ * from the primary; and such transactions do not read the cache either, so they always see the replica.
+ */
+public class ReplicaCacheBypass implements TransactionExecutionListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReadReplicaHealth replicaHealth;
+    private final ReadYourWrites readYourWrites;
+
+    public ReplicaCacheBypass(EntityManagerFactory entityManagerFactory, ReadReplicaHealth replicaHealth,
+                              ReadYourWrites readYourWrites) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.replicaHealth = replicaHealth;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, @Nullable Throwable beginFailure) {
+        if (beginFailure != null
+                || !ReadReplicaRoutingDataSource.routesToReplica(transaction.isReadOnly(), replicaHealth, readYourWrites)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.getResource(entityManagerFactory) instanceof EntityManagerHolder holder) {
+            // As properties rather than a session cache mode, which find() would replace with the JPA defaults
+            EntityManager entityManager = holder.getEntityManager();
+            entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS);
+            entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        }
+    }
+}
@@ -3,10 +3,8 @@ package com.bank.loanapi.repository;
 import com.bank.loanapi.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
-import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Boolean existsByUsername(String username);
-}
\ No newline at end of file
+}
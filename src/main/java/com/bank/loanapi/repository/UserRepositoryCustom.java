@@ -0,0 +1,9 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.entity.User;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    Optional<User> findByUsername(String username);
+}
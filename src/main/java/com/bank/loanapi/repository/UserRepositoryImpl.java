@@ -0,0 +1,25 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import java.util.Optional;
+
+/**
+ * Username lookups by natural id. The username resolves to the user id through the natural id cache, and the
+ * user and its roles then come from the second-level cache, so a warm lookup reads neither users nor user_roles.
+ * The customer is mapped by {@code customers.user_id}, so loading it still takes one query on customers.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username);
+    }
+}
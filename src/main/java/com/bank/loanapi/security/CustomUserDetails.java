@@ -2,24 +2,37 @@ package com.bank.loanapi.security;
 
 import com.bank.loanapi.entity.User;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
-@RequiredArgsConstructor
 @Getter
 public class CustomUserDetails implements UserDetails {
 
     private final User user;
+    private final Long customerId;
+    private final List<GrantedAuthority> authorities;
+    private final boolean admin;
+
+    public CustomUserDetails(User user) {
+        this(user, user.getCustomer() != null ? user.getCustomer().getId() : null);
+    }
+
+    public CustomUserDetails(User user, Long customerId) {
+        this.user = user;
+        this.customerId = customerId;
+        this.authorities = user.getRoles().stream()
+                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.name()))
+                .collect(Collectors.toUnmodifiableList());
+        this.admin = user.getRoles().contains(User.Role.ADMIN);
+    }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.name()))
-                .collect(Collectors.toList());
+        return authorities;
     }
 
     @Override
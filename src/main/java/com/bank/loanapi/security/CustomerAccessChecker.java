@@ -0,0 +1,24 @@
+package com.bank.loanapi.security;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CustomerAccessChecker {
+
+    // Every principal carries the id of the user's customer, so ownership needs no query; a user without a
+    // customer owns none
+    public void checkAccess(Long customerId) {
+        CustomUserDetails userDetails = (CustomUserDetails) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+
+        if (userDetails.isAdmin()) {
+            return;
+        }
+
+        if (userDetails.getCustomerId() == null || !userDetails.getCustomerId().equals(customerId)) {
+            throw new AccessDeniedException("You don't have permission to access this customer's data");
+        }
+    }
+}
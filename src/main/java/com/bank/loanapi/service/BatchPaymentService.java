@@ -0,0 +1,116 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.request.BatchPaymentRequest;
+import com.bank.loanapi.dto.request.BatchPaymentRequest.PaymentItem;
+import com.bank.loanapi.dto.response.BatchPaymentResponse;
+import com.bank.loanapi.dto.response.BatchPaymentResponse.ItemResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Runs a payment batch through the same per-customer write queues as single payments. The batch is cut into
+ * chunks of {@code batch-payment.chunk-size} items across customers; each chunk is paid by
+ * {@link PaymentService#payLoans} in one transaction, queued in the mailboxes of every customer it touches, so it
+ * is ordered with those customers' single payments. Queries and commits grow with the number of chunks, not of
+ * customers. A version conflict retries one chunk, and a chunk that still fails is reported on its items without
+ * undoing the others. At most {@code batch-payment.parallelism} chunks are in flight at once.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchPaymentService {
+
+    private final PaymentService paymentService;
+    private final LoanService loanService;
+    private final CustomerWriteExecutor writeExecutor;
+
+    @Value("${batch-payment.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${batch-payment.parallelism:4}")
+    private int parallelism;
+
+    public BatchPaymentResponse payLoans(BatchPaymentRequest request) {
+        List<PaymentItem> payments = request.getPayments();
+        Map<Long, Long> customerIds = loanService.findCustomerIdsForLoans(payments.stream()
+                .map(PaymentItem::getLoanId)
+                .distinct()
+                .toList());
+
+        ItemResult[] results = new ItemResult[payments.size()];
+        List<Integer> payable = new ArrayList<>(payments.size());
+        for (int i = 0; i < payments.size(); i++) {
+            if (customerIds.containsKey(payments.get(i).getLoanId())) {
+                payable.add(i);
+            } else {
+                results[i] = failed(i, payments.get(i), "Loan not found");
+            }
+        }
+
+        Deque<Chunk> inFlight = new ArrayDeque<>(parallelism);
+        for (int from = 0; from < payable.size(); from += chunkSize) {
+            if (inFlight.size() >= parallelism) {
+                completeOldest(inFlight, payments, results);
+            }
+            List<Integer> indexes = payable.subList(from, Math.min(from + chunkSize, payable.size()));
+            List<PaymentItem> items = indexes.stream().map(payments::get).toList();
+            BatchPaymentRequest chunkRequest = BatchPaymentRequest.builder().payments(items).build();
+            List<Long> chunkCustomerIds = items.stream()
+                    .map(item -> customerIds.get(item.getLoanId()))
+                    .toList();
+            inFlight.addLast(new Chunk(indexes,
+                    writeExecutor.submitAll(chunkCustomerIds, () -> paymentService.payLoans(chunkRequest))));
+        }
+        while (!inFlight.isEmpty()) {
+            completeOldest(inFlight, payments, results);
+        }
+
+        int succeeded = (int) Arrays.stream(results).filter(result -> "SUCCESS".equals(result.getStatus())).count();
+        return BatchPaymentResponse.builder()
+                .succeeded(succeeded)
+                .failed(payments.size() - succeeded)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    // Item results of a chunk come back in the chunk's order and are put back at their place in the batch
+    private static void completeOldest(Deque<Chunk> inFlight, List<PaymentItem> payments, ItemResult[] results) {
+        Chunk chunk = inFlight.removeFirst();
+        List<Integer> indexes = chunk.indexes();
+        try {
+            List<ItemResult> chunkResults = chunk.response().join().getResults();
+            for (int i = 0; i < indexes.size(); i++) {
+                ItemResult result = chunkResults.get(i);
+                result.setIndex(indexes.get(i));
+                results[indexes.get(i)] = result;
+            }
+        } catch (CompletionException ex) {
+            if (!(ex.getCause() instanceof RuntimeException failure)) {
+                throw ex;
+            }
+            for (int index : indexes) {
+                results[index] = failed(index, payments.get(index), failure.getMessage());
+            }
+        }
+    }
+
+    private static ItemResult failed(int index, PaymentItem payment, String error) {
+        return ItemResult.builder()
+                .index(index)
+                .loanId(payment.getLoanId())
+                .status("FAILED")
+                .error(error)
+                .build();
+    }
+
+    private record Chunk(List<Integer> indexes, CompletableFuture<BatchPaymentResponse> response) {
+    }
+}
@@ -0,0 +1,228 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.request.BulkImportRecord;
+import com.bank.loanapi.dto.request.BulkImportRecord.LoanItem;
+import com.bank.loanapi.dto.response.BulkImportResponse;
+import com.bank.loanapi.dto.response.BulkImportResponse.RejectedLine;
+import com.bank.loanapi.entity.Customer;
+import com.bank.loanapi.entity.Loan;
+import com.bank.loanapi.exception.InsufficientCreditException;
+import com.bank.loanapi.exception.InvalidLoanParametersException;
+import com.bank.loanapi.metrics.LoanMetrics;
+import com.bank.loanapi.money.Money;
+import com.bank.loanapi.repository.CustomerRepository;
+import com.bank.loanapi.repository.LoanRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports customers and loans from an NDJSON stream. Lines are read one at a time and written in fixed-size
+ * chunks, each chunk in its own transaction, so heap use does not grow with the size of the input.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkImportService {
+
+    private static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final CustomerRepository customerRepository;
+    private final LoanRepository loanRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LoanMetrics loanMetrics;
+
+    @Value("${bulk-import.chunk-size:500}")
+    private int chunkSize;
+
+    public BulkImportResponse importNdjson(InputStream input) throws IOException {
+        Progress progress = new Progress();
+        List<ImportLine> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long lineNumber = ++progress.linesRead;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    chunk.add(parse(lineNumber, line));
+                } catch (InvalidLoanParametersException | InsufficientCreditException ex) {
+                    progress.reject(lineNumber, ex.getMessage());
+                } catch (ArithmeticException ex) {
+                    progress.reject(lineNumber, "Amounts out of range");
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, progress);
+        }
+
+        log.info("Bulk import finished: {} lines, {} customers, {} loans, {} rejected",
+                progress.linesRead, progress.customersCreated, progress.loansCreated, progress.rejected);
+        return progress.toResponse();
+    }
+
+    // Applies the same checks as a single createLoan call; credit for existing customers is checked when written
+    private ImportLine parse(long lineNumber, String line) {
+        BulkImportRecord record;
+        try {
+            record = objectMapper.readValue(line, BulkImportRecord.class);
+        } catch (JsonProcessingException ex) {
+            throw new InvalidLoanParametersException("Malformed JSON: " + ex.getOriginalMessage());
+        }
+        if (record == null) {
+            throw new InvalidLoanParametersException("Line is not a JSON object");
+        }
+
+        Set<ConstraintViolation<BulkImportRecord>> violations = validator.validate(record);
+        if (!violations.isEmpty()) {
+            throw new InvalidLoanParametersException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        List<LoanItem> loans = record.getLoans() != null ? record.getLoans() : List.of();
+        if (record.getCustomerId() == null) {
+            if (!StringUtils.hasText(record.getName()) || !StringUtils.hasText(record.getSurname())
+                    || record.getCreditLimit() == null) {
+                throw new InvalidLoanParametersException("New customers need a name, surname and credit limit");
+            }
+        } else if (loans.isEmpty()) {
+            throw new InvalidLoanParametersException("No loans to import for customer " + record.getCustomerId());
+        }
+
+        Money totalAmount = Money.ZERO;
+        for (LoanItem loan : loans) {
+            LoanService.validateLoanTerms(loan.getNumberOfInstallments(), loan.getInterestRate());
+            totalAmount = totalAmount.plus(LoanService.totalAmount(Money.of(loan.getAmount()), loan.getInterestRate()));
+        }
+
+        if (record.getCustomerId() == null && Money.of(record.getCreditLimit()).compareTo(totalAmount) < 0) {
+            throw new InsufficientCreditException(
+                    String.format("Insufficient credit limit. Available: %s, Required: %s",
+                            record.getCreditLimit(), totalAmount));
+        }
+
+        return new ImportLine(lineNumber, record, loans, totalAmount);
+    }
+
+    private void writeChunk(List<ImportLine> chunk, Progress progress) {
+        try {
+            ChunkResult result = transactionTemplate.execute(status -> {
+                List<Customer> customers = new ArrayList<>();
+                List<Loan> loans = new ArrayList<>();
+                List<RejectedLine> rejected = new ArrayList<>();
+
+                // Reservations run before any insert is queued, so they do not force early flushes
+                for (ImportLine line : chunk) {
+                    Long customerId = line.record().getCustomerId();
+                    if (customerId == null) {
+                        continue;
+                    }
+                    if (customerRepository.reserveCredit(customerId, line.totalAmount()) == 0) {
+                        rejected.add(new RejectedLine(line.lineNumber(),
+                                "Customer not found or insufficient credit limit for " + line.totalAmount()));
+                        continue;
+                    }
+                    Customer customer = customerRepository.getReferenceById(customerId);
+                    line.loans().forEach(item -> loans.add(newLoan(customer, item)));
+                }
+
+                for (ImportLine line : chunk) {
+                    if (line.record().getCustomerId() != null) {
+                        continue;
+                    }
+                    Customer customer = Customer.builder()
+                            .name(line.record().getName())
+                            .surname(line.record().getSurname())
+                            .creditLimit(Money.of(line.record().getCreditLimit()))
+                            .usedCreditLimit(line.totalAmount())
+                            .build();
+                    customers.add(customer);
+                    line.loans().forEach(item -> loans.add(newLoan(customer, item)));
+                }
+
+                customerRepository.saveAll(customers);
+                loanRepository.saveAll(loans);
+                return new ChunkResult(customers.size(), loans.size(), rejected);
+            });
+
+            progress.customersCreated += result.customersCreated();
+            progress.loansCreated += result.loansCreated();
+            loanMetrics.loansCreated(result.loansCreated());
+            result.rejected().forEach(line -> progress.reject(line.getLineNumber(), line.getReason()));
+        } catch (DataAccessException | TransactionException ex) {
+            log.warn("Bulk import chunk starting at line {} could not be written", chunk.get(0).lineNumber(), ex);
+            String reason = "Chunk could not be written: " + ex.getMostSpecificCause().getMessage();
+            chunk.forEach(line -> progress.reject(line.lineNumber(), reason));
+        }
+    }
+
+    private Loan newLoan(Customer customer, LoanItem item) {
+        Money amount = Money.of(item.getAmount());
+        return LoanService.newLoan(customer, amount, item.getInterestRate(), item.getNumberOfInstallments(),
+                LoanService.totalAmount(amount, item.getInterestRate()));
+    }
+
+    private record ImportLine(long lineNumber, BulkImportRecord record, List<LoanItem> loans, Money totalAmount) {
+    }
+
+    private record ChunkResult(int customersCreated, int loansCreated, List<RejectedLine> rejected) {
+    }
+
+    private static final class Progress {
+        private long linesRead;
+        private long customersCreated;
+        private long loansCreated;
+        private long rejected;
+        private final List<RejectedLine> rejectedLines = new ArrayList<>();
+
+        private void reject(long lineNumber, String reason) {
+            rejected++;
+            if (rejectedLines.size() < MAX_REPORTED_REJECTIONS) {
+                rejectedLines.add(new RejectedLine(lineNumber, reason));
+            }
+        }
+
+        private BulkImportResponse toResponse() {
+            return BulkImportResponse.builder()
+                    .linesRead(linesRead)
+                    .customersCreated(customersCreated)
+                    .loansCreated(loansCreated)
+                    .rejected(rejected)
+                    .rejectedLines(rejectedLines)
+                    .build();
+        }
+    }
+}
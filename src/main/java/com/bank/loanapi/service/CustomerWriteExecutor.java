@@ -0,0 +1,164 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.exception.WriteQueueFullException;
+import com.bank.loanapi.metrics.SqlStatementCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs writes for the same customer one after another from a per-customer mailbox, while writes for
+ * different customers run in parallel on virtual threads. Writers queue in memory instead of waiting on
+ * row locks while holding a database connection.
+ */
+@Component
+@Slf4j
+public class CustomerWriteExecutor implements DisposableBean {
+
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentHashMap<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final Object multiCustomerLock = new Object();
+
+    @Value("${write.mailbox.capacity:256}")
+    private int capacity;
+
+    /**
+     * Queues the write behind earlier writes for the customer and waits for its result.
+     * Throws {@link WriteQueueFullException} when the customer's mailbox is already full.
+     */
+    public <T> T execute(Long customerId, Supplier<T> write) {
+        try {
+            return submit(customerId, write).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    <T> CompletableFuture<T> submit(Long customerId, Supplier<T> write) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        enqueue(customerId, withCallerContext(write, result), true);
+        return result;
+    }
+
+    /**
+     * Runs one write in the mailboxes of several customers at once: it starts when it reaches the head of every
+     * one of them, and each of those customers' later writes waits until it is done. Such writes are queued under
+     * one lock, so any two of them sit in the same order in every mailbox they share and never wait on each other
+     * in a cycle. They are not counted against the mailbox capacity.
+     */
+    <T> CompletableFuture<T> submitAll(Collection<Long> customerIds, Supplier<T> write) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Set<Long> distinctIds = new LinkedHashSet<>(customerIds);
+        if (distinctIds.isEmpty()) {
+            throw new IllegalArgumentException("A write needs at least one customer");
+        }
+        Runnable task = withCallerContext(write, result);
+        AtomicInteger arrived = new AtomicInteger();
+
+        // The last mailbox to reach the write runs it; the others hold their customer until it is done
+        Runnable hold = () -> {
+            if (arrived.incrementAndGet() == distinctIds.size()) {
+                task.run();
+            } else {
+                result.exceptionally(ex -> null).join();
+            }
+        };
+        synchronized (multiCustomerLock) {
+            for (Long customerId : distinctIds) {
+                enqueue(customerId, hold, false);
+            }
+        }
+        return result;
+    }
+
+    // Runs the write with the caller's security context and statement counter, completing the result either way
+    private static <T> Runnable withCallerContext(Supplier<T> write, CompletableFuture<T> result) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        LongAdder statements = SqlStatementCounter.current();
+        return () -> {
+            SecurityContextHolder.setContext(securityContext);
+            SqlStatementCounter.attach(statements);
+            try {
+                result.complete(write.get());
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            } finally {
+                SecurityContextHolder.clearContext();
+                SqlStatementCounter.clear();
+            }
+        };
+    }
+
+    private void enqueue(Long customerId, Runnable task, boolean bounded) {
+        boolean[] startDrain = new boolean[1];
+        mailboxes.compute(customerId, (id, mailbox) -> {
+            Mailbox target = mailbox != null ? mailbox : new Mailbox();
+            if (bounded && target.pending.size() >= capacity) {
+                throw new WriteQueueFullException("Too many pending writes for customer " + id + ", retry later");
+            }
+            target.pending.add(task);
+            if (!target.draining) {
+                target.draining = true;
+                startDrain[0] = true;
+            }
+            return target;
+        });
+
+        if (startDrain[0]) {
+            workers.execute(() -> drain(customerId));
+        }
+    }
+
+    private void drain(Long customerId) {
+        Runnable next;
+        while ((next = poll(customerId)) != null) {
+            next.run();
+        }
+    }
+
+    // Takes the next write, dropping the mailbox once it is empty so idle customers hold no memory
+    private Runnable poll(Long customerId) {
+        Runnable[] next = new Runnable[1];
+        mailboxes.computeIfPresent(customerId, (id, mailbox) -> {
+            next[0] = mailbox.pending.poll();
+            return next[0] != null ? mailbox : null;
+        });
+        return next[0];
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Customer writes still running at shutdown");
+        }
+    }
+
+    private static final class Mailbox {
+        private final Deque<Runnable> pending = new ArrayDeque<>();
+        private boolean draining;
+    }
+}
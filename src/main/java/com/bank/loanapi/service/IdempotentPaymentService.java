@@ -0,0 +1,194 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.request.PayLoanRequest;
+import com.bank.loanapi.dto.response.PaymentResultResponse;
+import com.bank.loanapi.entity.IdempotencyRecord;
+import com.bank.loanapi.exception.IdempotencyKeyReuseException;
+import com.bank.loanapi.exception.InvalidLoanParametersException;
+import com.bank.loanapi.money.Money;
+import com.bank.loanapi.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Makes {@code payLoan} safe to retry with an Idempotency-Key. A repeated key gets the stored response
+ * instead of a second payment: recent responses are answered from a bounded in-memory LRU, older ones
+ * from the idempotency table, and a duplicate arriving while the first request is still running waits
+ * for its result. Keys are scoped to the calling user and kept for {@code idempotency.ttl}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotentPaymentService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final PaymentService paymentService;
+    private final LoanService loanService;
+    private final CustomerWriteExecutor writeExecutor;
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<String, CompletableFuture<StoredPayment>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${idempotency.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    private Cache<String, StoredPayment> recentPayments;
+
+    @PostConstruct
+    void init() {
+        recentPayments = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public PaymentResultResponse payLoan(String idempotencyKey, Long loanId, PayLoanRequest request) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidLoanParametersException(
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String key = scopedKey(idempotencyKey);
+
+        StoredPayment cached = recentPayments.getIfPresent(key);
+        if (cached != null) {
+            return cached.responseFor(loanId, request.getAmount());
+        }
+
+        CompletableFuture<StoredPayment> pending = new CompletableFuture<>();
+        CompletableFuture<StoredPayment> running = inFlight.putIfAbsent(key, pending);
+        if (running != null) {
+            return await(running).responseFor(loanId, request.getAmount());
+        }
+
+        try {
+            StoredPayment payment = recordRepository.findById(key)
+                    .filter(record -> record.getCreatedAt().isAfter(cutoff()))
+                    .map(this::fromRecord)
+                    .orElseGet(() -> pay(key, loanId, request));
+            recentPayments.put(key, payment);
+            pending.complete(payment);
+            return payment.responseFor(loanId, request.getAmount());
+        } catch (RuntimeException ex) {
+            pending.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval:PT10M}")
+    @Transactional
+    public void removeExpiredRecords() {
+        int removed = recordRepository.deleteCreatedBefore(cutoff());
+        if (removed > 0) {
+            log.debug("Removed {} expired idempotency records", removed);
+        }
+    }
+
+    public CacheStats getRecentPaymentCacheStats() {
+        return recentPayments.stats();
+    }
+
+    // The record is written in the payment's transaction, so a committed payment always has its record; an expired
+    // record still holding the key is replaced in the same transaction
+    private StoredPayment pay(String key, Long loanId, PayLoanRequest request) {
+        Long customerId = loanService.findCustomerIdForLoan(loanId);
+        Money amount = Money.of(request.getAmount());
+        try {
+            return writeExecutor.execute(customerId, () -> {
+                PaymentResultResponse response = paymentService.payLoan(loanId, request, result -> {
+                    recordRepository.deleteByIdCreatedBefore(key, cutoff());
+                    recordRepository.saveAndFlush(IdempotencyRecord.builder()
+                            .id(key)
+                            .loanId(loanId)
+                            .amount(amount)
+                            .response(toJson(result))
+                            .createdAt(LocalDateTime.now())
+                            .build());
+                });
+                return new StoredPayment(loanId, amount, response);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // Another instance recorded the same key first; its payment stands and ours was rolled back
+            return recordRepository.findById(key)
+                    .filter(record -> record.getCreatedAt().isAfter(cutoff()))
+                    .map(this::fromRecord)
+                    .orElseThrow(() -> ex);
+        }
+    }
+
+    private String scopedKey(String idempotencyKey) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String caller = authentication != null ? authentication.getName() : "";
+        return caller + ":" + idempotencyKey;
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minus(ttl);
+    }
+
+    private StoredPayment fromRecord(IdempotencyRecord record) {
+        try {
+            PaymentResultResponse response = objectMapper.readValue(record.getResponse(), PaymentResultResponse.class);
+            return new StoredPayment(record.getLoanId(), record.getAmount(), response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Stored idempotent response could not be read", ex);
+        }
+    }
+
+    private String toJson(PaymentResultResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Payment response could not be stored", ex);
+        }
+    }
+
+    private static StoredPayment await(CompletableFuture<StoredPayment> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw ex;
+        }
+    }
+
+    // Amounts are compared as the payment rounds them, which is also how the record stores them
+    private record StoredPayment(Long loanId, Money amount, PaymentResultResponse response) {
+
+        PaymentResultResponse responseFor(Long requestedLoanId, BigDecimal requestedAmount) {
+            if (!loanId.equals(requestedLoanId) || amount.compareTo(Money.of(requestedAmount)) != 0) {
+                throw new IdempotencyKeyReuseException(
+                        "Idempotency-Key was already used for a different payment request");
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.money.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Checks the aggregates stored on each loan (paid installment count, remaining amount, next due date and
+ * penalties paid) against its installment rows, a range of loan ids at a time, and rewrites the ones that
+ * differ. A loan changed by a payment after it was read keeps the payment's values.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanAggregateReconciliationService {
+
+    private static final String LAST_ID_OF_NEXT_CHUNK = "SELECT MAX(id) FROM " +
+            "(SELECT id FROM loans WHERE id > ? ORDER BY id FETCH FIRST ? ROWS ONLY) chunk";
+
+    private static final String STORED_AND_ACTUAL = "SELECT l.id, l.version, " +
+            "l.paid_installment_count, l.remaining_amount, l.next_due_date, l.penalties_paid, " +
+            "COUNT(CASE WHEN li.is_paid THEN 1 END), " +
+            "COALESCE(SUM(CASE WHEN li.is_paid THEN 0 ELSE li.amount END), 0), " +
+            "MIN(CASE WHEN li.is_paid THEN NULL ELSE li.due_date END), " +
+            "COALESCE(SUM(CASE WHEN li.is_paid AND li.paid_amount > li.amount " +
+            "THEN li.paid_amount - li.amount ELSE 0 END), 0) " +
+            "FROM loans l LEFT JOIN loan_installments li ON li.loan_id = l.id " +
+            "WHERE l.id > ? AND l.id <= ? " +
+            "GROUP BY l.id, l.version, l.paid_installment_count, l.remaining_amount, l.next_due_date, l.penalties_paid";
+
+    private static final String REWRITE = "UPDATE loans SET paid_installment_count = ?, remaining_amount = ?, " +
+            "next_due_date = ?, penalties_paid = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${loan-aggregates.chunk-size:1000}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${loan-aggregates.reconcile-cron:0 0 3 * * *}")
+    public void reconcileNightly() {
+        reconcile();
+    }
+
+    /**
+     * Returns the number of loans whose aggregates were rewritten.
+     */
+    public long reconcile() {
+        long afterId = 0;
+        long checked = 0;
+        long rewritten = 0;
+        Long lastId;
+        while ((lastId = jdbcTemplate.queryForObject(LAST_ID_OF_NEXT_CHUNK, Long.class, afterId, chunkSize)) != null) {
+            long from = afterId;
+            long to = lastId;
+            ChunkResult result = transactionTemplate.execute(status -> reconcileChunk(from, to));
+            checked += result.checked();
+            rewritten += result.rewritten();
+            afterId = lastId;
+        }
+
+        if (rewritten > 0) {
+            log.warn("Loan aggregate reconciliation rewrote {} of {} loans", rewritten, checked);
+        } else {
+            log.info("Loan aggregate reconciliation checked {} loans", checked);
+        }
+        return rewritten;
+    }
+
+    private ChunkResult reconcileChunk(long afterId, long lastId) {
+        List<Row> rows = jdbcTemplate.query(STORED_AND_ACTUAL, LoanAggregateReconciliationService::row, afterId, lastId);
+        List<Row> drifted = rows.stream().filter(row -> !row.stored().equals(row.actual())).toList();
+        drifted.forEach(row -> log.warn("Loan {} aggregates {} do not match its installments {}",
+                row.loanId(), row.stored(), row.actual()));
+
+        int rewritten = 0;
+        if (!drifted.isEmpty()) {
+            int[][] counts = jdbcTemplate.batchUpdate(REWRITE, drifted, drifted.size(), (statement, row) -> {
+                statement.setInt(1, row.actual().paidInstallmentCount());
+                statement.setBigDecimal(2, row.actual().remainingAmount().toBigDecimal());
+                statement.setDate(3, row.actual().nextDueDate() == null ? null : Date.valueOf(row.actual().nextDueDate()));
+                statement.setBigDecimal(4, row.actual().penaltiesPaid().toBigDecimal());
+                statement.setLong(5, row.loanId());
+                statement.setLong(6, row.version());
+            });
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    rewritten += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+                }
+            }
+        }
+        return new ChunkResult(rows.size(), rewritten);
+    }
+
+    private static Row row(ResultSet rs, int rowNum) throws SQLException {
+        return new Row(rs.getLong(1), rs.getLong(2),
+                new Aggregates(rs.getInt(3), Money.of(rs.getBigDecimal(4)), localDate(rs.getDate(5)),
+                        Money.of(rs.getBigDecimal(6))),
+                new Aggregates(rs.getInt(7), Money.of(rs.getBigDecimal(8)), localDate(rs.getDate(9)),
+                        Money.of(rs.getBigDecimal(10))));
+    }
+
+    private static LocalDate localDate(Date date) {
+        return date == null ? null : date.toLocalDate();
+    }
+
+    private record Aggregates(int paidInstallmentCount, Money remainingAmount, LocalDate nextDueDate,
+                              Money penaltiesPaid) {
+    }
+
+    private record Row(long loanId, long version, Aggregates stored, Aggregates actual) {
+    }
+
+    private record ChunkResult(long checked, long rewritten) {
+    }
+}
@@ -0,0 +1,210 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.response.PaymentResultResponse;
+import com.bank.loanapi.dto.response.PaymentResultResponse.InstallmentPaymentDetail;
+import com.bank.loanapi.entity.Loan;
+import com.bank.loanapi.entity.LoanInstallment;
+import com.bank.loanapi.money.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pricing arithmetic shared by loan creation, payments and quotes, so a quote always matches what gets persisted.
+ * Everything is {@link Money}, i.e. long cents rounded half-up.
+ */
+final class LoanCalculator {
+
+    static final BigDecimal EARLY_PAYMENT_DISCOUNT_RATE = new BigDecimal("0.001");
+    static final BigDecimal LATE_PAYMENT_PENALTY_RATE = new BigDecimal("0.001");
+
+    private static final long DISCOUNT_RATE_UNITS = EARLY_PAYMENT_DISCOUNT_RATE.unscaledValue().longValueExact();
+    private static final long DISCOUNT_RATE_ONE = BigDecimal.ONE.scaleByPowerOfTen(EARLY_PAYMENT_DISCOUNT_RATE.scale())
+            .longValueExact();
+    private static final long PENALTY_RATE_UNITS = LATE_PAYMENT_PENALTY_RATE.unscaledValue().longValueExact();
+    private static final long PENALTY_RATE_ONE = BigDecimal.ONE.scaleByPowerOfTen(LATE_PAYMENT_PENALTY_RATE.scale())
+            .longValueExact();
+
+    private LoanCalculator() {
+    }
+
+    /**
+     * Installments a payment covers, in payment order, with what each one costs on the payment date.
+     */
+    record Allocation(List<LoanInstallment> installments, List<Money> requiredAmounts, LocalDate paymentDate) {
+
+        // Marks the covered installments paid and moves the loan's aggregates by what they cover
+        void apply(Loan loan) {
+            long covered = 0;
+            long penalties = 0;
+            for (int i = 0; i < installments.size(); i++) {
+                LoanInstallment installment = installments.get(i);
+                installment.setPaidAmount(requiredAmounts.get(i));
+                installment.setPaymentDate(paymentDate);
+                installment.setIsPaid(true);
+                covered += installment.getAmount().cents();
+                penalties += penaltyPaid(installment).cents();
+            }
+
+            loan.setPaidInstallmentCount(loan.getPaidInstallmentCount() + installments.size());
+            loan.setRemainingAmount(loan.getRemainingAmount().minus(Money.ofCents(covered)));
+            loan.setPenaltiesPaid(loan.getPenaltiesPaid().plus(Money.ofCents(penalties)));
+            loan.setNextDueDate(nextDueDate(loan.getInstallments()));
+        }
+    }
+
+    static Money totalAmount(Money amount, BigDecimal interestRate) {
+        return amount.multiply(BigDecimal.ONE.add(interestRate));
+    }
+
+    static Money installmentAmount(Money totalAmount, int numberOfInstallments) {
+        return totalAmount.divide(numberOfInstallments);
+    }
+
+    // The installment amount less 0.1% per day paid early, or plus 0.1% per day paid late
+    static Money requiredAmount(Money installmentAmount, long daysUntilDue) {
+        if (daysUntilDue > 0) {
+            return installmentAmount.minus(
+                    installmentAmount.multiply(DISCOUNT_RATE_UNITS * daysUntilDue, DISCOUNT_RATE_ONE));
+        } else if (daysUntilDue < 0) {
+            return installmentAmount.plus(latePenalty(installmentAmount, -daysUntilDue));
+        } else {
+            return installmentAmount;
+        }
+    }
+
+    // 0.1% of the installment amount per day late
+    static Money latePenalty(Money installmentAmount, long daysLate) {
+        return installmentAmount.multiply(PENALTY_RATE_UNITS * daysLate, PENALTY_RATE_ONE);
+    }
+
+    static String paymentType(long daysUntilDue) {
+        if (daysUntilDue > 0) {
+            return "EARLY";
+        } else if (daysUntilDue < 0) {
+            return "LATE";
+        } else {
+            return "ON_TIME";
+        }
+    }
+
+    static long daysUntilDue(LoanInstallment installment, LocalDate paymentDate) {
+        return ChronoUnit.DAYS.between(paymentDate, installment.getDueDate());
+    }
+
+    /**
+     * Walks the payable installments in order and covers each one in full while the amount lasts; an installment
+     * the remainder cannot cover is skipped, not part-paid. Nothing is modified until {@link Allocation#apply(Loan)}.
+     */
+    static Allocation allocate(List<LoanInstallment> payableInstallments, Money amount, LocalDate paymentDate) {
+        long remaining = amount.cents();
+        List<LoanInstallment> covered = new ArrayList<>();
+        List<Money> requiredAmounts = new ArrayList<>();
+        for (LoanInstallment installment : payableInstallments) {
+            if (remaining <= 0) {
+                break;
+            }
+
+            Money required = requiredAmount(installment.getAmount(), daysUntilDue(installment, paymentDate));
+            if (remaining >= required.cents()) {
+                remaining -= required.cents();
+                covered.add(installment);
+                requiredAmounts.add(required);
+            }
+        }
+        return new Allocation(covered, requiredAmounts, paymentDate);
+    }
+
+    /**
+     * The payment result as it will stand once the allocation is applied. The remaining amount comes from the
+     * loan's aggregates; the loan is fully paid when no unpaid installment row is left uncovered, whatever the
+     * declared number of installments.
+     */
+    static PaymentResultResponse paymentResult(Loan loan, Allocation allocation) {
+        List<InstallmentPaymentDetail> details = new ArrayList<>(allocation.installments().size());
+        long totalSpent = 0;
+        long coveredAmount = 0;
+        for (int i = 0; i < allocation.installments().size(); i++) {
+            LoanInstallment installment = allocation.installments().get(i);
+            Money required = allocation.requiredAmounts().get(i);
+            totalSpent += required.cents();
+            coveredAmount += installment.getAmount().cents();
+            details.add(InstallmentPaymentDetail.builder()
+                    .installmentId(installment.getId())
+                    .originalAmount(installment.getAmount())
+                    .paidAmount(required)
+                    .discountOrPenalty(required.minus(installment.getAmount()))
+                    .paymentType(paymentType(daysUntilDue(installment, allocation.paymentDate())))
+                    .build());
+        }
+
+        return PaymentResultResponse.builder()
+                .installmentsPaid(details.size())
+                .totalAmountSpent(Money.ofCents(totalSpent))
+                .isLoanFullyPaid(unpaidCount(loan.getInstallments()) == details.size())
+                .remainingLoanAmount(Money.ofCents(loan.getRemainingAmount().cents() - coveredAmount))
+                .paidInstallments(details)
+                .build();
+    }
+
+    // The covered installments are all unpaid, so the loan is settled when they are every unpaid one
+    private static int unpaidCount(List<LoanInstallment> installments) {
+        int unpaid = 0;
+        for (LoanInstallment installment : installments) {
+            if (!installment.getIsPaid()) {
+                unpaid++;
+            }
+        }
+        return unpaid;
+    }
+
+    /**
+     * Sets the loan's aggregates from its installments, for a new loan or when checking stored aggregates.
+     */
+    static void summarize(Loan loan) {
+        int paidCount = 0;
+        long remaining = 0;
+        long penalties = 0;
+        for (LoanInstallment installment : loan.getInstallments()) {
+            if (installment.getIsPaid()) {
+                paidCount++;
+                penalties += penaltyPaid(installment).cents();
+            } else {
+                remaining += installment.getAmount().cents();
+            }
+        }
+        loan.setPaidInstallmentCount(paidCount);
+        loan.setRemainingAmount(Money.ofCents(remaining));
+        loan.setPenaltiesPaid(Money.ofCents(penalties));
+        loan.setNextDueDate(nextDueDate(loan.getInstallments()));
+    }
+
+    // What was paid over the installment amount; early payment discounts are not counted
+    static Money penaltyPaid(LoanInstallment installment) {
+        Money difference = installment.getPaidAmount().minus(installment.getAmount());
+        return difference.signum() > 0 ? difference : Money.ZERO;
+    }
+
+    // Earliest unpaid due date, or null once everything is paid
+    private static LocalDate nextDueDate(List<LoanInstallment> installments) {
+        LocalDate next = null;
+        for (LoanInstallment installment : installments) {
+            if (!installment.getIsPaid() && (next == null || installment.getDueDate().isBefore(next))) {
+                next = installment.getDueDate();
+            }
+        }
+        return next;
+    }
+
+    // What settling every given installment would cost on the payment date
+    static Money payoffAmount(List<LoanInstallment> unpaidInstallments, LocalDate paymentDate) {
+        long payoff = 0;
+        for (LoanInstallment installment : unpaidInstallments) {
+            payoff += requiredAmount(installment.getAmount(), daysUntilDue(installment, paymentDate)).cents();
+        }
+        return Money.ofCents(payoff);
+    }
+}
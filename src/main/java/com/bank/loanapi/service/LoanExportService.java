@@ -0,0 +1,219 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.response.InstallmentResponse;
+import com.bank.loanapi.dto.response.LoanBookEntry;
+import com.bank.loanapi.exception.InvalidLoanParametersException;
+import com.bank.loanapi.repository.LoanBookInstallment;
+import com.bank.loanapi.repository.LoanBookLoan;
+import com.bank.loanapi.repository.LoanInstallmentRepository;
+import com.bank.loanapi.repository.LoanRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Exports the whole loan book. Loans are read in id order, {@code loan-export.chunk-size} at a time, then the
+ * installments of that chunk; each read is a short read-only transaction of its own, and the chunk is written to
+ * the output before the next one is read. A slow client never holds a connection, and memory use does not grow
+ * with the size of the book. The export is not one snapshot, so a loan paid while it runs may appear either way.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanExportService {
+
+    public enum Format {
+        CSV("text/csv;charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new InvalidLoanParametersException("Export format must be csv or ndjson");
+        }
+    }
+
+    static final String CSV_HEADER = "loan_id,customer_id,loan_amount,number_of_installments,interest_rate,create_date," +
+            "loan_is_paid,paid_installments,remaining_amount,next_due_date,penalties_paid," +
+            "installment_id,installment_number,amount,paid_amount,due_date,payment_date,is_paid," +
+            "accrued_penalty,penalty_accrued_on";
+
+    private final LoanRepository loanRepository;
+    private final LoanInstallmentRepository installmentRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${loan-export.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Writes every loan and installment to the output: CSV has one row per installment, NDJSON one loan per line
+     * with its schedule. The output is flushed but not closed. Returns the number of installments written.
+     */
+    public long export(Format format, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer, objectMapper);
+
+        long afterId = 0;
+        long rows = 0;
+        List<LoanBookLoan> loans;
+        while (!(loans = loanRepository.findLoanBookAfter(afterId, Limit.of(chunkSize))).isEmpty()) {
+            long lastId = loans.get(loans.size() - 1).loanId();
+            Map<Long, LoanBookLoan> loansById = loans.stream()
+                    .collect(Collectors.toMap(LoanBookLoan::loanId, Function.identity()));
+            for (LoanBookInstallment installment : installmentRepository.findLoanBookInstallments(afterId, lastId)) {
+                // A loan created in this id range after its chunk was read is left to the next export
+                LoanBookLoan loan = loansById.get(installment.loanId());
+                if (loan != null) {
+                    rowWriter.write(loan, installment);
+                    rows++;
+                }
+            }
+            writer.flush();
+            afterId = lastId;
+        }
+        rowWriter.finish();
+        writer.flush();
+
+        log.info("Loan book exported as {}: {} installments", format, rows);
+        return rows;
+    }
+
+    private interface RowWriter {
+
+        void write(LoanBookLoan loan, LoanBookInstallment installment) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    // Rows arrive in due date order within a loan, which numbers the installments
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+        private Long loanId;
+        private int installmentNumber;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(LoanBookLoan loan, LoanBookInstallment installment) throws IOException {
+            installmentNumber = loan.loanId().equals(loanId) ? installmentNumber + 1 : 1;
+            loanId = loan.loanId();
+
+            // Every column is a number, date or boolean, so none needs quoting
+            writer.write(String.join(",",
+                    cell(loan.loanId()), cell(loan.customerId()), cell(loan.loanAmount()),
+                    cell(loan.numberOfInstallments()), cell(loan.interestRate().toPlainString()),
+                    cell(loan.createDate()), cell(loan.isPaid()), cell(loan.paidInstallments()),
+                    cell(loan.remainingAmount()), cell(loan.nextDueDate()), cell(loan.penaltiesPaid()),
+                    cell(installment.installmentId()), cell(installmentNumber), cell(installment.amount()),
+                    cell(installment.paidAmount()), cell(installment.dueDate()), cell(installment.paymentDate()),
+                    cell(installment.isPaid()), cell(installment.accruedPenalty()),
+                    cell(installment.penaltyAccruedOn())));
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private static String cell(Object value) {
+            return Objects.toString(value, "");
+        }
+    }
+
+    // Holds one loan's schedule at a time and writes the loan once the next one starts
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final Writer writer;
+        private final ObjectMapper objectMapper;
+        private LoanBookEntry entry;
+
+        NdjsonRowWriter(Writer writer, ObjectMapper objectMapper) {
+            this.writer = writer;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public void write(LoanBookLoan loan, LoanBookInstallment installment) throws IOException {
+            if (entry == null || !entry.getId().equals(loan.loanId())) {
+                finish();
+                entry = LoanBookEntry.builder()
+                        .id(loan.loanId())
+                        .customerId(loan.customerId())
+                        .loanAmount(loan.loanAmount())
+                        .numberOfInstallments(loan.numberOfInstallments())
+                        .interestRate(loan.interestRate())
+                        .createDate(loan.createDate())
+                        .isPaid(loan.isPaid())
+                        .paidInstallments(loan.paidInstallments())
+                        .remainingAmount(loan.remainingAmount())
+                        .nextDueDate(loan.nextDueDate())
+                        .penaltiesPaid(loan.penaltiesPaid())
+                        .installments(new ArrayList<>(loan.numberOfInstallments()))
+                        .build();
+            }
+
+            List<InstallmentResponse> installments = entry.getInstallments();
+            installments.add(InstallmentResponse.builder()
+                    .id(installment.installmentId())
+                    .loanId(loan.loanId())
+                    .amount(installment.amount())
+                    .paidAmount(installment.paidAmount())
+                    .dueDate(installment.dueDate())
+                    .paymentDate(installment.paymentDate())
+                    .isPaid(installment.isPaid())
+                    .accruedPenalty(installment.accruedPenalty())
+                    .penaltyAccruedOn(installment.penaltyAccruedOn())
+                    .installmentNumber(installments.size() + 1)
+                    .build());
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (entry != null) {
+                writer.write(objectMapper.writeValueAsString(entry));
+                writer.write('\n');
+                entry = null;
+            }
+        }
+    }
+}
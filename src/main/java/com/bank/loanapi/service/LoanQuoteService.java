@@ -0,0 +1,104 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.response.LoanQuoteResponse;
+import com.bank.loanapi.dto.response.LoanQuoteResponse.ScheduledInstallment;
+import com.bank.loanapi.dto.response.PaymentQuoteResponse;
+import com.bank.loanapi.entity.Loan;
+import com.bank.loanapi.entity.LoanInstallment;
+import com.bank.loanapi.exception.InvalidLoanParametersException;
+import com.bank.loanapi.exception.ResourceNotFoundException;
+import com.bank.loanapi.money.Money;
+import com.bank.loanapi.repository.LoanRepository;
+import com.bank.loanapi.security.CustomerAccessChecker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only previews of {@link LoanService#createLoan} and {@link PaymentService#payLoan}. Quotes go through the
+ * same schedule and allocation code as the writes but never modify or lock anything, and skip the per-customer
+ * write queue.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoanQuoteService {
+
+    private final LoanRepository loanRepository;
+    private final CustomerAccessChecker accessChecker;
+
+    private static final BigDecimal MIN_AMOUNT = new BigDecimal("0.01");
+
+    public LoanQuoteResponse quoteLoan(BigDecimal amount, BigDecimal interestRate, Integer numberOfInstallments) {
+        validateAmount(amount);
+        LoanService.validateLoanTerms(numberOfInstallments, interestRate);
+
+        Money loanAmount = Money.of(amount);
+        Money totalAmount = LoanService.totalAmount(loanAmount, interestRate);
+        Loan loan = LoanService.newLoan(null, loanAmount, interestRate, numberOfInstallments, totalAmount);
+
+        List<LoanInstallment> installments = loan.getInstallments();
+        List<ScheduledInstallment> schedule = new ArrayList<>(installments.size());
+        for (int i = 0; i < installments.size(); i++) {
+            schedule.add(ScheduledInstallment.builder()
+                    .installmentNumber(i + 1)
+                    .dueDate(installments.get(i).getDueDate())
+                    .amount(installments.get(i).getAmount())
+                    .build());
+        }
+
+        return LoanQuoteResponse.builder()
+                .loanAmount(loanAmount)
+                .interestRate(interestRate)
+                .numberOfInstallments(numberOfInstallments)
+                .totalAmount(totalAmount)
+                .installments(schedule)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentQuoteResponse quotePayment(Long loanId, BigDecimal amount) {
+        validateAmount(amount);
+
+        Loan loan = loanRepository.findByIdWithInstallments(loanId)
+                .orElseThrow(() -> new ResourceNotFoundException("Loan not found"));
+
+        accessChecker.checkAccess(loan.getCustomer().getId());
+
+        if (loan.getIsPaid()) {
+            throw new IllegalStateException("Loan is already fully paid");
+        }
+
+        LocalDate today = LocalDate.now();
+        List<LoanInstallment> unpaidInstallments = loan.getInstallments().stream()
+                .filter(installment -> !installment.getIsPaid())
+                .toList();
+        List<LoanInstallment> payableInstallments = PaymentService.payableInstallments(loan,
+                PaymentService.maxPayableDate(today));
+
+        if (payableInstallments.isEmpty()) {
+            throw new IllegalStateException("No payable installments found");
+        }
+
+        Money paymentAmount = Money.of(amount);
+        LoanCalculator.Allocation allocation = LoanCalculator.allocate(payableInstallments, paymentAmount, today);
+
+        return PaymentQuoteResponse.builder()
+                .loanId(loanId)
+                .quoteDate(today)
+                .amount(paymentAmount)
+                .payment(LoanCalculator.paymentResult(loan, allocation))
+                .payoffAmount(LoanCalculator.payoffAmount(unpaidInstallments, today))
+                .build();
+    }
+
+    private static void validateAmount(BigDecimal amount) {
+        if (amount.compareTo(MIN_AMOUNT) < 0) {
+            throw new InvalidLoanParametersException("Amount must be greater than 0");
+        }
+    }
+}
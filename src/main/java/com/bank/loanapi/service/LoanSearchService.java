@@ -0,0 +1,65 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.request.InstallmentSearchCriteria;
+import com.bank.loanapi.dto.request.LoanSearchCriteria;
+import com.bank.loanapi.dto.response.InstallmentPageResponse;
+import com.bank.loanapi.dto.response.InstallmentResponse;
+import com.bank.loanapi.dto.response.LoanPageResponse;
+import com.bank.loanapi.dto.response.LoanResponse;
+import com.bank.loanapi.repository.LoanInstallmentRepository;
+import com.bank.loanapi.repository.LoanRepository;
+import com.bank.loanapi.util.PageCursor;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Cross-customer loan and installment search for administrators. Pages use the same keyset cursor and size
+ * limits as the customer loan listing; access is enforced by the admin endpoints.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class LoanSearchService {
+
+    private final LoanRepository loanRepository;
+    private final LoanInstallmentRepository installmentRepository;
+
+    @Timed(value = "loan.service", histogram = true)
+    public LoanPageResponse searchLoans(LoanSearchCriteria criteria, String cursor, Integer size) {
+        int pageSize = LoanService.pageSize(size);
+        List<LoanResponse> loans = loanRepository.findLoanPage(criteria, PageCursor.decode(cursor), pageSize + 1);
+        boolean hasMore = loans.size() > pageSize;
+        if (hasMore) {
+            loans = loans.subList(0, pageSize);
+        }
+
+        return LoanPageResponse.builder()
+                .loans(loans)
+                .size(pageSize)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? PageCursor.encode(loans.get(loans.size() - 1).getId()) : null)
+                .build();
+    }
+
+    @Timed(value = "loan.service", histogram = true)
+    public InstallmentPageResponse searchInstallments(InstallmentSearchCriteria criteria, String cursor, Integer size) {
+        int pageSize = LoanService.pageSize(size);
+        List<InstallmentResponse> installments =
+                installmentRepository.findInstallmentPage(criteria, PageCursor.decode(cursor), pageSize + 1);
+        boolean hasMore = installments.size() > pageSize;
+        if (hasMore) {
+            installments = installments.subList(0, pageSize);
+        }
+
+        return InstallmentPageResponse.builder()
+                .installments(installments)
+                .size(pageSize)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? PageCursor.encode(installments.get(installments.size() - 1).getId()) : null)
+                .build();
+    }
+}
@@ -1,26 +1,30 @@
 package com.bank.loanapi.service;
 
 import com.bank.loanapi.dto.request.CreateLoanRequest;
+import com.bank.loanapi.dto.request.LoanSearchCriteria;
 import com.bank.loanapi.dto.response.InstallmentResponse;
+import com.bank.loanapi.dto.response.LoanPageResponse;
 import com.bank.loanapi.dto.response.LoanResponse;
 import com.bank.loanapi.entity.*;
 import com.bank.loanapi.exception.*;
+import com.bank.loanapi.metrics.LoanMetrics;
+import com.bank.loanapi.money.Money;
 import com.bank.loanapi.repository.*;
-import com.bank.loanapi.security.CustomUserDetails;
+import com.bank.loanapi.security.CustomerAccessChecker;
+import com.bank.loanapi.util.PageCursor;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -30,28 +34,27 @@ public class LoanService {
 
     private final LoanRepository loanRepository;
     private final CustomerRepository customerRepository;
-    private final LoanInstallmentRepository installmentRepository;
+    private final CustomerAccessChecker accessChecker;
+    private final LoanMetrics loanMetrics;
 
     private static final Set<Integer> ALLOWED_INSTALLMENTS = Set.of(6, 9, 12, 24);
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int LOAN_LOOKUP_CHUNK_SIZE = 1000;
 
+    @Retryable(retryFor = OptimisticLockingFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 10, multiplier = 2, random = true))
+    @Timed(value = "loan.service", histogram = true)
     public LoanResponse createLoan(CreateLoanRequest request) {
-        if (!ALLOWED_INSTALLMENTS.contains(request.getNumberOfInstallments())) {
-            throw new InvalidLoanParametersException("Number of installments must be 6, 9, 12, or 24");
-        }
-
-        if (request.getInterestRate().compareTo(new BigDecimal("0.1")) < 0 ||
-                request.getInterestRate().compareTo(new BigDecimal("0.5")) > 0) {
-            throw new InvalidLoanParametersException("Interest rate must be between 0.1 and 0.5");
-        }
+        validateLoanTerms(request.getNumberOfInstallments(), request.getInterestRate());
 
         Customer customer = customerRepository.findById(request.getCustomerId())
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
 
-        checkCustomerAccess(customer);
+        accessChecker.checkAccess(customer.getId());
 
-        BigDecimal totalAmount = request.getAmount()
-                .multiply(BigDecimal.ONE.add(request.getInterestRate()))
-                .setScale(2, RoundingMode.HALF_UP);
+        Money amount = Money.of(request.getAmount());
+        Money totalAmount = totalAmount(amount, request.getInterestRate());
 
         if (customer.getAvailableCreditLimit().compareTo(totalAmount) < 0) {
             throw new InsufficientCreditException(
@@ -59,99 +62,168 @@ public class LoanService {
                             customer.getAvailableCreditLimit(), totalAmount));
         }
 
-        Loan loan = Loan.builder()
-                .customer(customer)
-                .loanAmount(request.getAmount())
-                .numberOfInstallment(request.getNumberOfInstallments())
-                .interestRate(request.getInterestRate())
-                .createDate(LocalDateTime.now())
-                .isPaid(false)
-                .installments(new ArrayList<>())
-                .build();
-
-        BigDecimal installmentAmount = totalAmount
-                .divide(new BigDecimal(request.getNumberOfInstallments()), 2, RoundingMode.HALF_UP);
+        Loan loan = newLoan(customer, amount, request.getInterestRate(),
+                request.getNumberOfInstallments(), totalAmount);
 
-        LocalDate firstDueDate = LocalDate.now().plusMonths(1).withDayOfMonth(1);
+        Loan savedLoan = loanRepository.save(loan);
 
-        for (int i = 0; i < request.getNumberOfInstallments(); i++) {
-            LoanInstallment installment = LoanInstallment.builder()
-                    .loan(loan)
-                    .amount(installmentAmount)
-                    .paidAmount(BigDecimal.ZERO)
-                    .dueDate(firstDueDate.plusMonths(i))
-                    .isPaid(false)
-                    .build();
-            loan.getInstallments().add(installment);
+        // Reserved last so the customer row stays locked only until the loan inserts are flushed on commit
+        if (customerRepository.reserveCredit(customer.getId(), totalAmount) == 0) {
+            throw new InsufficientCreditException(
+                    String.format("Insufficient credit limit. Required: %s", totalAmount));
         }
 
-        customer.setUsedCreditLimit(customer.getUsedCreditLimit().add(totalAmount));
-        customerRepository.save(customer);
-
-        Loan savedLoan = loanRepository.save(loan);
-
+        loanMetrics.loansCreated(1);
         return mapToLoanResponse(savedLoan);
     }
 
     @Transactional(readOnly = true)
+    @Timed(value = "loan.service", histogram = true)
     public List<LoanResponse> listLoans(Long customerId, Integer numberOfInstallments, Boolean isPaid) {
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
 
-        checkCustomerAccess(customer);
-
-        List<Loan> loans;
-
-        if (numberOfInstallments != null && isPaid != null) {
-            loans = loanRepository.findByCustomerIdAndNumberOfInstallments(customerId, numberOfInstallments)
-                    .stream()
-                    .filter(loan -> loan.getIsPaid().equals(isPaid))
-                    .collect(Collectors.toList());
-        } else if (isPaid != null) {
-            loans = loanRepository.findByCustomerIdAndIsPaid(customerId, isPaid);
-        } else if (numberOfInstallments != null) {
-            loans = loanRepository.findByCustomerIdAndNumberOfInstallments(customerId, numberOfInstallments);
-        } else {
-            loans = loanRepository.findByCustomerId(customerId);
+        accessChecker.checkAccess(customer.getId());
+
+        return loanRepository.findLoanResponses(customerId, numberOfInstallments, isPaid);
+    }
+
+    @Transactional(readOnly = true)
+    public LoanPageResponse listLoansPage(LoanSearchCriteria criteria, String cursor, Integer size) {
+        Customer customer = customerRepository.findById(criteria.getCustomerId())
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
+
+        accessChecker.checkAccess(customer.getId());
+
+        int pageSize = pageSize(size);
+        List<LoanResponse> loans = loanRepository.findLoanPage(criteria, PageCursor.decode(cursor), pageSize + 1);
+        boolean hasMore = loans.size() > pageSize;
+        if (hasMore) {
+            loans = loans.subList(0, pageSize);
         }
 
-        return loans.stream()
-                .map(this::mapToLoanResponse)
-                .collect(Collectors.toList());
+        return LoanPageResponse.builder()
+                .loans(loans)
+                .size(pageSize)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? PageCursor.encode(loans.get(loans.size() - 1).getId()) : null)
+                .build();
+    }
+
+    static int pageSize(Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        if (pageSize < 1) {
+            throw new InvalidLoanParametersException("Page size must be at least 1");
+        }
+        return pageSize;
     }
 
     @Transactional(readOnly = true)
+    @Timed(value = "loan.service", histogram = true)
     public List<InstallmentResponse> listInstallments(Long loanId) {
         Loan loan = loanRepository.findByIdWithInstallments(loanId)
                 .orElseThrow(() -> new ResourceNotFoundException("Loan not found"));
 
-        checkCustomerAccess(loan.getCustomer());
+        accessChecker.checkAccess(loan.getCustomer().getId());
+
+        List<LoanInstallment> installments = loan.getInstallments();
+        List<InstallmentResponse> responses = new ArrayList<>(installments.size());
+        for (int i = 0; i < installments.size(); i++) {
+            responses.add(mapToInstallmentResponse(installments.get(i), i + 1));
+        }
+        return responses;
+    }
+
+    /**
+     * Version behind the ETag of {@link #listLoans}; one aggregate over the customer's loans, none loaded.
+     * Read it before the listing, so a concurrent write can only make the tag older than the body, never newer.
+     */
+    @Transactional(readOnly = true)
+    public CustomerLoansVersion findLoansVersion(Long customerId) {
+        accessChecker.checkAccess(customerId);
+        return loanRepository.findCustomerLoansVersion(customerId);
+    }
+
+    /**
+     * Version behind the ETag of {@link #listInstallments}; read it before the listing, as for {@link #findLoansVersion}.
+     */
+    @Transactional(readOnly = true)
+    public LoanScheduleVersion findScheduleVersion(Long loanId) {
+        LoanScheduleVersion version = loanRepository.findScheduleVersion(loanId)
+                .orElseThrow(() -> new ResourceNotFoundException("Loan not found"));
+
+        accessChecker.checkAccess(version.customerId());
+        return version;
+    }
 
-        List<LoanInstallment> installments = installmentRepository.findByLoanIdOrderByDueDateAsc(loanId);
+    // Read before a payment to pick its write queue, so it stays on the primary: a loan created moments ago may
+    // not have reached the replica yet
+    public Long findCustomerIdForLoan(Long loanId) {
+        return loanRepository.findCustomerIdById(loanId)
+                .orElseThrow(() -> new ResourceNotFoundException("Loan not found"));
+    }
+
+    // As findCustomerIdForLoan, for the items of a payment batch; loans that do not exist are left out
+    public Map<Long, Long> findCustomerIdsForLoans(List<Long> loanIds) {
+        Map<Long, Long> customerIds = new HashMap<>();
+        for (int from = 0; from < loanIds.size(); from += LOAN_LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = loanIds.subList(from, Math.min(from + LOAN_LOOKUP_CHUNK_SIZE, loanIds.size()));
+            loanRepository.findOwnersByIdIn(chunk)
+                    .forEach(owner -> customerIds.put(owner.loanId(), owner.customerId()));
+        }
+        return customerIds;
+    }
+
+    static void validateLoanTerms(Integer numberOfInstallments, BigDecimal interestRate) {
+        if (!ALLOWED_INSTALLMENTS.contains(numberOfInstallments)) {
+            throw new InvalidLoanParametersException("Number of installments must be 6, 9, 12, or 24");
+        }
+
+        if (interestRate.compareTo(new BigDecimal("0.1")) < 0 ||
+                interestRate.compareTo(new BigDecimal("0.5")) > 0) {
+            throw new InvalidLoanParametersException("Interest rate must be between 0.1 and 0.5");
+        }
+    }
 
-        return installments.stream()
-                .map((installment) -> {
-                    int installmentNumber = installments.indexOf(installment) + 1;
-                    return mapToInstallmentResponse(installment, installmentNumber);
-                })
-                .collect(Collectors.toList());
+    static Money totalAmount(Money amount, BigDecimal interestRate) {
+        return LoanCalculator.totalAmount(amount, interestRate);
     }
 
-    protected void checkCustomerAccess(Customer customer) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+    // Builds an unpaid loan with its installment schedule, first due on the 1st of next month
+    static Loan newLoan(Customer customer, Money amount, BigDecimal interestRate, Integer numberOfInstallments,
+                        Money totalAmount) {
+        Loan loan = Loan.builder()
+                .customer(customer)
+                .loanAmount(amount)
+                .numberOfInstallment(numberOfInstallments)
+                .interestRate(interestRate)
+                .createDate(LocalDateTime.now())
+                .isPaid(false)
+                .installments(new ArrayList<>())
+                .build();
 
-        boolean isAdmin = userDetails.getAuthorities().stream()
-                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
+        LocalDate firstDueDate = LocalDate.now().plusMonths(1).withDayOfMonth(1);
+        addInstallments(loan, totalAmount, firstDueDate);
+        LoanCalculator.summarize(loan);
+        return loan;
+    }
 
-        if (!isAdmin && !customer.getUser().getId().equals(userDetails.getUser().getId())) {
-            throw new AccessDeniedException("You don't have permission to access this customer's data");
+    static void addInstallments(Loan loan, Money totalAmount, LocalDate firstDueDate) {
+        Money installmentAmount = LoanCalculator.installmentAmount(totalAmount, loan.getNumberOfInstallment());
+
+        for (int i = 0; i < loan.getNumberOfInstallment(); i++) {
+            LoanInstallment installment = LoanInstallment.builder()
+                    .loan(loan)
+                    .amount(installmentAmount)
+                    .paidAmount(Money.ZERO)
+                    .dueDate(firstDueDate.plusMonths(i))
+                    .isPaid(false)
+                    .build();
+            loan.getInstallments().add(installment);
         }
     }
 
     private LoanResponse mapToLoanResponse(Loan loan) {
-        int paidInstallments = installmentRepository.countPaidInstallmentsByLoanId(loan.getId());
-
         return LoanResponse.builder()
                 .id(loan.getId())
                 .customerId(loan.getCustomer().getId())
@@ -161,9 +233,12 @@ public class LoanService {
                 .interestRate(loan.getInterestRate())
                 .createDate(loan.getCreateDate())
                 .isPaid(loan.getIsPaid())
-                .totalAmount(loan.getLoanAmount().multiply(BigDecimal.ONE.add(loan.getInterestRate())))
-                .paidInstallments(paidInstallments)
-                .remainingInstallments(loan.getNumberOfInstallment() - paidInstallments)
+                .totalAmount(totalAmount(loan.getLoanAmount(), loan.getInterestRate()))
+                .paidInstallments(loan.getPaidInstallmentCount())
+                .remainingInstallments(loan.getNumberOfInstallment() - loan.getPaidInstallmentCount())
+                .remainingAmount(loan.getRemainingAmount())
+                .nextDueDate(loan.getNextDueDate())
+                .penaltiesPaid(loan.getPenaltiesPaid())
                 .build();
     }
 
@@ -176,6 +251,8 @@ public class LoanService {
                 .dueDate(installment.getDueDate())
                 .paymentDate(installment.getPaymentDate())
                 .isPaid(installment.getIsPaid())
+                .accruedPenalty(installment.getAccruedPenalty())
+                .penaltyAccruedOn(installment.getPenaltyAccruedOn())
                 .installmentNumber(installmentNumber)
                 .build();
     }
@@ -1,21 +1,33 @@
 package com.bank.loanapi.service;
 
+import com.bank.loanapi.dto.request.BatchPaymentRequest;
+import com.bank.loanapi.dto.request.BatchPaymentRequest.PaymentItem;
 import com.bank.loanapi.dto.request.PayLoanRequest;
+import com.bank.loanapi.dto.response.BatchPaymentResponse;
+import com.bank.loanapi.dto.response.BatchPaymentResponse.ItemResult;
 import com.bank.loanapi.dto.response.PaymentResultResponse;
-import com.bank.loanapi.dto.response.PaymentResultResponse.InstallmentPaymentDetail;
 import com.bank.loanapi.entity.*;
 import com.bank.loanapi.exception.ResourceNotFoundException;
+import com.bank.loanapi.metrics.LoanMetrics;
+import com.bank.loanapi.money.Money;
 import com.bank.loanapi.repository.*;
+import com.bank.loanapi.security.CustomerAccessChecker;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -24,122 +36,178 @@ import java.util.List;
 public class PaymentService {
 
     private final LoanRepository loanRepository;
-    private final LoanInstallmentRepository installmentRepository;
     private final CustomerRepository customerRepository;
-    private final LoanService loanService;
+    private final CustomerAccessChecker accessChecker;
+    private final LoanMetrics loanMetrics;
 
-    private static final BigDecimal EARLY_PAYMENT_DISCOUNT_RATE = new BigDecimal("0.001");
-    private static final BigDecimal LATE_PAYMENT_PENALTY_RATE = new BigDecimal("0.001");
     private static final int MAX_PAYABLE_MONTHS_AHEAD = 3;
+    private static final int LOAN_LOOKUP_CHUNK_SIZE = 1000;
 
+    @Retryable(retryFor = OptimisticLockingFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 10, multiplier = 2, random = true))
+    @Timed(value = "loan.service", histogram = true)
     public PaymentResultResponse payLoan(Long loanId, PayLoanRequest request) {
+        return payLoan(loanId, request, result -> { });
+    }
+
+    /**
+     * Pays as {@link #payLoan(Long, PayLoanRequest)} does and hands the result to {@code inTransaction} before
+     * the transaction commits, so what it writes commits or rolls back with the payment. An optimistic lock
+     * conflict in either retries both in a new transaction.
+     */
+    @Retryable(retryFor = OptimisticLockingFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 10, multiplier = 2, random = true))
+    @Timed(value = "loan.service", histogram = true)
+    public PaymentResultResponse payLoan(Long loanId, PayLoanRequest request,
+                                         Consumer<PaymentResultResponse> inTransaction) {
         Loan loan = loanRepository.findByIdWithInstallments(loanId)
                 .orElseThrow(() -> new ResourceNotFoundException("Loan not found"));
 
         Customer customer = loan.getCustomer();
-        loanService.checkCustomerAccess(customer);
+        accessChecker.checkAccess(customer.getId());
 
         if (loan.getIsPaid()) {
             throw new IllegalStateException("Loan is already fully paid");
         }
 
         LocalDate today = LocalDate.now();
-        LocalDate maxPayableDate = today.plusMonths(MAX_PAYABLE_MONTHS_AHEAD).withDayOfMonth(1);
+        List<LoanInstallment> payableInstallments = payableInstallments(loan, maxPayableDate(today));
 
-        List<LoanInstallment> payableInstallments = installmentRepository
-                .findPayableInstallments(loanId, maxPayableDate);
+        PaymentResultResponse result = allocatePayment(loan, payableInstallments, Money.of(request.getAmount()), today);
+        loanMetrics.installmentsPaid(result.getPaidInstallments());
 
-        if (payableInstallments.isEmpty()) {
-            throw new IllegalStateException("No payable installments found");
+        if (result.getIsLoanFullyPaid()) {
+            releaseCredit(customer.getId(), totalAmount(loan));
         }
 
-        BigDecimal remainingAmount = request.getAmount();
-        List<InstallmentPaymentDetail> paidInstallmentDetails = new ArrayList<>();
-        BigDecimal totalSpent = BigDecimal.ZERO;
+        loanRepository.save(loan);
+        inTransaction.accept(result);
 
-        for (LoanInstallment installment : payableInstallments) {
-            if (remainingAmount.compareTo(BigDecimal.ZERO) <= 0) {
-                break;
-            }
+        return result;
+    }
 
-            BigDecimal requiredAmount = calculateRequiredAmount(installment, today);
+    /**
+     * Settles many payments in one transaction. Loans are loaded with their customers and schedules in chunked
+     * IN queries, each item is allocated with the same rules as {@link #payLoan}, and the changes are flushed
+     * as JDBC batches on commit. Items that cannot be paid are reported individually and do not stop the batch.
+     * {@link BatchPaymentService} calls this one chunk of a batch at a time, which bounds what a conflict retries.
+     */
+    @Retryable(retryFor = OptimisticLockingFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 10, multiplier = 2, random = true))
+    public BatchPaymentResponse payLoans(BatchPaymentRequest request) {
+        List<PaymentItem> payments = request.getPayments();
+        Map<Long, Loan> loans = loadLoansWithInstallments(payments.stream()
+                .map(PaymentItem::getLoanId)
+                .distinct()
+                .toList());
 
-            if (remainingAmount.compareTo(requiredAmount) >= 0) {
-                installment.setPaidAmount(requiredAmount);
-                installment.setPaymentDate(today);
-                installment.setIsPaid(true);
+        LocalDate today = LocalDate.now();
+        LocalDate maxPayableDate = maxPayableDate(today);
+        Map<Long, Money> creditToRelease = new HashMap<>();
+        List<ItemResult> results = new ArrayList<>(payments.size());
+        int succeeded = 0;
+
+        for (int i = 0; i < payments.size(); i++) {
+            PaymentItem payment = payments.get(i);
+            ItemResult.ItemResultBuilder itemResult = ItemResult.builder()
+                    .index(i)
+                    .loanId(payment.getLoanId());
+            try {
+                Loan loan = loans.get(payment.getLoanId());
+                if (loan == null) {
+                    throw new ResourceNotFoundException("Loan not found");
+                }
+
+                Long customerId = loan.getCustomer().getId();
+                accessChecker.checkAccess(customerId);
+
+                if (loan.getIsPaid()) {
+                    throw new IllegalStateException("Loan is already fully paid");
+                }
+
+                List<LoanInstallment> payableInstallments = payableInstallments(loan, maxPayableDate);
+
+                PaymentResultResponse result = allocatePayment(loan, payableInstallments,
+                        Money.of(payment.getAmount()), today);
+                loanMetrics.installmentsPaid(result.getPaidInstallments());
+                if (result.getIsLoanFullyPaid()) {
+                    creditToRelease.merge(customerId, totalAmount(loan), Money::plus);
+                }
+
+                results.add(itemResult.status("SUCCESS").payment(result).build());
+                succeeded++;
+            } catch (ResourceNotFoundException | AccessDeniedException | IllegalStateException ex) {
+                results.add(itemResult.status("FAILED").error(ex.getMessage()).build());
+            }
+        }
 
-                remainingAmount = remainingAmount.subtract(requiredAmount);
-                totalSpent = totalSpent.add(requiredAmount);
+        // One release per customer, after every item, so the bulk updates do not force early flushes
+        creditToRelease.forEach(this::releaseCredit);
 
-                String paymentType = determinePaymentType(installment.getDueDate(), today);
-                BigDecimal discountOrPenalty = requiredAmount.subtract(installment.getAmount());
+        return BatchPaymentResponse.builder()
+                .succeeded(succeeded)
+                .failed(payments.size() - succeeded)
+                .results(results)
+                .build();
+    }
 
-                paidInstallmentDetails.add(InstallmentPaymentDetail.builder()
-                        .installmentId(installment.getId())
-                        .originalAmount(installment.getAmount())
-                        .paidAmount(requiredAmount)
-                        .discountOrPenalty(discountOrPenalty)
-                        .paymentType(paymentType)
-                        .build());
-            }
+    private Map<Long, Loan> loadLoansWithInstallments(List<Long> loanIds) {
+        Map<Long, Loan> loans = new HashMap<>();
+        for (int from = 0; from < loanIds.size(); from += LOAN_LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = loanIds.subList(from, Math.min(from + LOAN_LOOKUP_CHUNK_SIZE, loanIds.size()));
+            loanRepository.findAllWithInstallmentsByIdIn(chunk)
+                    .forEach(loan -> loans.put(loan.getId(), loan));
         }
+        return loans;
+    }
 
-        boolean allPaid = loan.getInstallments().stream().allMatch(LoanInstallment::getIsPaid);
-        if (allPaid) {
+    // Pays the earliest payable installments in full while the amount lasts; the loan is marked paid when none remain
+    private PaymentResultResponse allocatePayment(Loan loan, List<LoanInstallment> payableInstallments,
+                                                  Money amount, LocalDate today) {
+        if (payableInstallments.isEmpty()) {
+            throw new IllegalStateException("No payable installments found");
+        }
+
+        LoanCalculator.Allocation allocation = LoanCalculator.allocate(payableInstallments, amount, today);
+        PaymentResultResponse result = LoanCalculator.paymentResult(loan, allocation);
+        allocation.apply(loan);
+        if (result.getIsLoanFullyPaid()) {
             loan.setIsPaid(true);
-            customer.setUsedCreditLimit(
-                    customer.getUsedCreditLimit().subtract(
-                            loan.getLoanAmount().multiply(BigDecimal.ONE.add(loan.getInterestRate()))
-                    )
-            );
-            customerRepository.save(customer);
         }
+        return result;
+    }
 
-        loanRepository.save(loan);
+    private void releaseCredit(Long customerId, Money amount) {
+        if (customerRepository.releaseCredit(customerId, amount) == 0) {
+            throw new IllegalStateException("Released credit exceeds used credit limit");
+        }
+    }
 
-        BigDecimal remainingLoanAmount = loan.getInstallments().stream()
-                .filter(i -> !i.getIsPaid())
-                .map(LoanInstallment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return PaymentResultResponse.builder()
-                .installmentsPaid(paidInstallmentDetails.size())
-                .totalAmountSpent(totalSpent)
-                .isLoanFullyPaid(allPaid)
-                .remainingLoanAmount(remainingLoanAmount)
-                .paidInstallments(paidInstallmentDetails)
-                .build();
+    private static Money totalAmount(Loan loan) {
+        return LoanCalculator.totalAmount(loan.getLoanAmount(), loan.getInterestRate());
     }
 
-    private BigDecimal calculateRequiredAmount(LoanInstallment installment, LocalDate paymentDate) {
-        long daysDifference = ChronoUnit.DAYS.between(paymentDate, installment.getDueDate());
-
-        if (daysDifference > 0) {
-            BigDecimal discount = installment.getAmount()
-                    .multiply(EARLY_PAYMENT_DISCOUNT_RATE)
-                    .multiply(new BigDecimal(daysDifference))
-                    .setScale(2, RoundingMode.HALF_UP);
-            return installment.getAmount().subtract(discount);
-        } else if (daysDifference < 0) {
-            BigDecimal penalty = installment.getAmount()
-                    .multiply(LATE_PAYMENT_PENALTY_RATE)
-                    .multiply(new BigDecimal(Math.abs(daysDifference)))
-                    .setScale(2, RoundingMode.HALF_UP);
-            return installment.getAmount().add(penalty);
-        } else {
-            return installment.getAmount();
+    // The schedule is fetched with the loan in due date order, so this needs no query of its own
+    static List<LoanInstallment> payableInstallments(Loan loan, LocalDate maxPayableDate) {
+        List<LoanInstallment> payable = new ArrayList<>();
+        for (LoanInstallment installment : loan.getInstallments()) {
+            if (!installment.getIsPaid() && !installment.getDueDate().isAfter(maxPayableDate)) {
+                payable.add(installment);
+            }
         }
+        return payable;
     }
 
-    private String determinePaymentType(LocalDate dueDate, LocalDate paymentDate) {
-        long daysDifference = ChronoUnit.DAYS.between(paymentDate, dueDate);
-        if (daysDifference > 0) {
-            return "EARLY";
-        } else if (daysDifference < 0) {
-            return "LATE";
-        } else {
-            return "ON_TIME";
-        }
+    static LocalDate maxPayableDate(LocalDate today) {
+        return today.plusMonths(MAX_PAYABLE_MONTHS_AHEAD).withDayOfMonth(1);
+    }
+
+    Money calculateRequiredAmount(LoanInstallment installment, LocalDate paymentDate) {
+        return LoanCalculator.requiredAmount(installment.getAmount(),
+                LoanCalculator.daysUntilDue(installment, paymentDate));
+    }
+
+    String determinePaymentType(LocalDate dueDate, LocalDate paymentDate) {
+        return LoanCalculator.paymentType(ChronoUnit.DAYS.between(paymentDate, dueDate));
     }
-}
\ No newline at end of file
+}
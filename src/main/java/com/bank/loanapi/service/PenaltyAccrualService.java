@@ -0,0 +1,153 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.entity.PenaltyAccrualCheckpoint;
+import com.bank.loanapi.repository.LoanInstallmentRepository;
+import com.bank.loanapi.repository.OverdueInstallment;
+import com.bank.loanapi.repository.PenaltyAccrualCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Accrues late penalties on overdue installments once a day, so accrued penalties can be reported without
+ * pricing every installment. Overdue installments are read in id order a chunk at a time; each chunk is priced
+ * and written back as one JDBC batch in its own transaction on a virtual thread, with at most
+ * {@code penalty-accrual.parallelism} chunks in flight while the next one is read.
+ *
+ * <p>The day's checkpoint only moves past a chunk once it and every chunk before it have committed, so a run
+ * that stops part way resumes from there. A chunk written twice gets the same values.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PenaltyAccrualService {
+
+    // The version bump makes a payment that loaded the installment before the accrual retry instead of
+    // writing back the stale penalty
+    private static final String ACCRUE_PENALTY = "UPDATE loan_installments " +
+            "SET accrued_penalty = ?, penalty_accrued_on = ?, version = version + 1 WHERE id = ? AND is_paid = false";
+
+    private final LoanInstallmentRepository installmentRepository;
+    private final PenaltyAccrualCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${penalty-accrual.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${penalty-accrual.parallelism:4}")
+    private int parallelism;
+
+    @Scheduled(cron = "${penalty-accrual.cron:0 30 1 * * *}")
+    public void accrueOverduePenalties() {
+        accrue(LocalDate.now());
+    }
+
+    /**
+     * Accrues penalties as of the given day on every unpaid installment due before it, resuming from the
+     * day's checkpoint. Returns the number of installments written by this call.
+     */
+    public long accrue(LocalDate asOf) {
+        PenaltyAccrualCheckpoint checkpoint = checkpointRepository.findById(asOf)
+                .orElseGet(() -> checkpointRepository.save(PenaltyAccrualCheckpoint.builder()
+                        .accrualDate(asOf)
+                        .lastInstallmentId(0L)
+                        .completed(false)
+                        .updatedAt(LocalDateTime.now())
+                        .build()));
+        if (checkpoint.getCompleted()) {
+            log.info("Penalty accrual for {} already completed", asOf);
+            return 0;
+        }
+
+        long afterId = checkpoint.getLastInstallmentId();
+        if (afterId > 0) {
+            log.info("Resuming penalty accrual for {} after installment {}", asOf, afterId);
+        }
+
+        long accrued = 0;
+        Deque<Chunk> inFlight = new ArrayDeque<>(parallelism);
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<OverdueInstallment> page;
+            do {
+                page = installmentRepository.findOverdueAfter(afterId, asOf, Limit.of(chunkSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).id();
+
+                if (inFlight.size() >= parallelism) {
+                    accrued += completeOldest(inFlight, asOf);
+                }
+                List<OverdueInstallment> chunk = page;
+                inFlight.addLast(new Chunk(afterId,
+                        CompletableFuture.supplyAsync(() -> writePenalties(chunk, asOf), workers)));
+            } while (page.size() == chunkSize);
+
+            while (!inFlight.isEmpty()) {
+                accrued += completeOldest(inFlight, asOf);
+            }
+        }
+
+        checkpointRepository.markCompleted(asOf, LocalDateTime.now());
+        log.info("Penalty accrual for {} finished: {} installments", asOf, accrued);
+        return accrued;
+    }
+
+    // Waiting on the oldest chunk first keeps the checkpoint below every chunk still in flight
+    private int completeOldest(Deque<Chunk> inFlight, LocalDate asOf) {
+        Chunk chunk = inFlight.removeFirst();
+        int written;
+        try {
+            written = chunk.written().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw ex;
+        }
+        checkpointRepository.advance(asOf, chunk.lastInstallmentId(), LocalDateTime.now());
+        return written;
+    }
+
+    private int writePenalties(List<OverdueInstallment> chunk, LocalDate asOf) {
+        Date accrualDate = Date.valueOf(asOf);
+        int[][] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(ACCRUE_PENALTY, chunk,
+                chunk.size(), (statement, installment) -> {
+                    long daysLate = ChronoUnit.DAYS.between(installment.dueDate(), asOf);
+                    statement.setBigDecimal(1,
+                            LoanCalculator.latePenalty(installment.amount(), daysLate).toBigDecimal());
+                    statement.setDate(2, accrualDate);
+                    statement.setLong(3, installment.id());
+                }));
+
+        int written = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                written += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        return written;
+    }
+
+    private record Chunk(long lastInstallmentId, CompletableFuture<Integer> written) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.bank.loanapi;
 
+import com.bank.loanapi.dto.request.BatchPaymentRequest;
 import com.bank.loanapi.dto.request.CreateLoanRequest;
 import com.bank.loanapi.dto.request.LoginRequest;
 import com.bank.loanapi.dto.request.PayLoanRequest;
@@ -8,38 +9,59 @@ import com.bank.loanapi.dto.response.LoanResponse;
 import com.bank.loanapi.dto.response.PaymentResultResponse;
 import com.bank.loanapi.entity.Customer;
 import com.bank.loanapi.entity.User;
+import com.bank.loanapi.metrics.SqlStatements;
+import com.bank.loanapi.money.Money;
 import com.bank.loanapi.repository.CustomerRepository;
 import com.bank.loanapi.repository.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
+import static com.bank.loanapi.metrics.SqlStatements.atMost;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+/**
+ * End-to-end tests through the full security and web stack. Writes run on the per-customer write executor's
+ * threads, so the tests commit for real and use fresh users per test instead of rolling back.
+ *
+ * <p>The statement budget tests fail the build when an endpoint starts issuing more SQL than it should,
+ * typically because a query per loan or installment crept in.
+ */
+@SpringBootTest(properties = "sql.statements.response-header=true")
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
-@Transactional
-@Disabled("Integration tests need proper setup")
 class LoanApiIntegrationTest {
 
+    // Statements per request, each including the one user lookup done by the JWT filter; the listings
+    // also include the version lookup behind their ETag
+    private static final int LIST_LOANS_BUDGET = 4;
+    private static final int LIST_INSTALLMENTS_BUDGET = 3;
+    private static final int CREATE_LOAN_BUDGET = 5;
+    private static final int PAY_LOAN_BUDGET = 5;
+    // A batch within one chunk: the owners of the loans, the loans with their schedules, then one batched update
+    // each of installments and loans
+    private static final int PAY_BATCH_BUDGET = 5;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -58,12 +80,15 @@ class LoanApiIntegrationTest {
     private String adminToken;
     private String customerToken;
     private Long customerId;
+    private String suffix;
 
     @BeforeEach
     void setUp() throws Exception {
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+
         // Create admin user
         User adminUser = User.builder()
-                .username("admin")
+                .username("admin." + suffix)
                 .password(passwordEncoder.encode("admin123"))
                 .roles(Set.of(User.Role.ADMIN))
                 .build();
@@ -71,7 +96,7 @@ class LoanApiIntegrationTest {
 
         // Create customer user
         User customerUser = User.builder()
-                .username("test.customer")
+                .username("test.customer." + suffix)
                 .password(passwordEncoder.encode("password123"))
                 .roles(Set.of(User.Role.CUSTOMER))
                 .build();
@@ -81,16 +106,16 @@ class LoanApiIntegrationTest {
         Customer customer = Customer.builder()
                 .name("Test")
                 .surname("Customer")
-                .creditLimit(new BigDecimal("10000"))
-                .usedCreditLimit(BigDecimal.ZERO)
+                .creditLimit(Money.of("10000"))
+                .usedCreditLimit(Money.ZERO)
                 .user(customerUser)
                 .build();
         customer = customerRepository.save(customer);
         customerId = customer.getId();
 
         // Get tokens
-        adminToken = getAuthToken("admin", "admin123");
-        customerToken = getAuthToken("test.customer", "password123");
+        adminToken = getAuthToken("admin." + suffix, "admin123");
+        customerToken = getAuthToken("test.customer." + suffix, "password123");
     }
 
     private String getAuthToken(String username, String password) throws Exception {
@@ -124,6 +149,7 @@ class LoanApiIntegrationTest {
                 .build();
 
         MvcResult createResult = mockMvc.perform(post("/api/loans")
+                        .with(csrf())
                         .header("Authorization", "Bearer " + customerToken)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(createRequest)))
@@ -136,7 +162,7 @@ class LoanApiIntegrationTest {
         );
 
         assertNotNull(loanResponse.getId());
-        assertEquals(new BigDecimal("1200.00"), loanResponse.getTotalAmount());
+        assertEquals(Money.of("1200.00"), loanResponse.getTotalAmount());
 
         // 2. List loans
         mockMvc.perform(get("/api/loans")
@@ -155,6 +181,7 @@ class LoanApiIntegrationTest {
         PayLoanRequest payRequest = new PayLoanRequest(new BigDecimal("400"));
 
         MvcResult payResult = mockMvc.perform(post("/api/loans/" + loanResponse.getId() + "/pay")
+                        .with(csrf())
                         .header("Authorization", "Bearer " + customerToken)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(payRequest)))
@@ -174,7 +201,7 @@ class LoanApiIntegrationTest {
     void accessControl_CustomerCannotAccessOtherCustomersData() throws Exception {
         // Create another customer
         User otherUser = User.builder()
-                .username("other.customer")
+                .username("other.customer." + suffix)
                 .password(passwordEncoder.encode("password123"))
                 .roles(Set.of(User.Role.CUSTOMER))
                 .build();
@@ -183,8 +210,8 @@ class LoanApiIntegrationTest {
         Customer otherCustomer = Customer.builder()
                 .name("Other")
                 .surname("Customer")
-                .creditLimit(new BigDecimal("5000"))
-                .usedCreditLimit(BigDecimal.ZERO)
+                .creditLimit(Money.of("5000"))
+                .usedCreditLimit(Money.ZERO)
                 .user(otherUser)
                 .build();
         otherCustomer = customerRepository.save(otherCustomer);
@@ -215,6 +242,7 @@ class LoanApiIntegrationTest {
                 .build();
 
         mockMvc.perform(post("/api/loans")
+                        .with(csrf())
                         .header("Authorization", "Bearer " + customerToken)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(invalidRequest)))
@@ -232,10 +260,187 @@ class LoanApiIntegrationTest {
                 .build();
 
         mockMvc.perform(post("/api/loans")
+                        .with(csrf())
                         .header("Authorization", "Bearer " + customerToken)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(largeRequest)))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("Insufficient Credit"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void statementBudget_ListLoans_IndependentOfLoanCount() throws Exception {
+        createLoan(6);
+        long withOneLoan = SqlStatements.count(listLoans());
+
+        for (int i = 0; i < 4; i++) {
+            createLoan(6);
+        }
+        MvcResult withFiveLoans = listLoans();
+
+        assertEquals(withOneLoan, SqlStatements.count(withFiveLoans));
+        atMost(LIST_LOANS_BUDGET).match(withFiveLoans);
+    }
+
+    @Test
+    void statementBudget_ListInstallments_IndependentOfScheduleLength() throws Exception {
+        Long shortLoan = createLoan(6);
+        Long longLoan = createLoan(24);
+
+        long shortSchedule = SqlStatements.count(listInstallments(shortLoan));
+        MvcResult longSchedule = listInstallments(longLoan);
+
+        assertEquals(shortSchedule, SqlStatements.count(longSchedule));
+        atMost(LIST_INSTALLMENTS_BUDGET).match(longSchedule);
+    }
+
+    @Test
+    void statementBudget_CreateAndPayLoan() throws Exception {
+        CreateLoanRequest createRequest = CreateLoanRequest.builder()
+                .customerId(customerId)
+                .amount(new BigDecimal("1000"))
+                .interestRate(new BigDecimal("0.2"))
+                .numberOfInstallments(24)
+                .build();
+
+        MvcResult created = mockMvc.perform(post("/api/loans")
+                        .with(csrf())
+                        .header("Authorization", "Bearer " + customerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(atMost(CREATE_LOAN_BUDGET))
+                .andReturn();
+        Long loanId = objectMapper.readValue(created.getResponse().getContentAsString(), LoanResponse.class).getId();
+
+        mockMvc.perform(post("/api/loans/" + loanId + "/pay")
+                        .with(csrf())
+                        .header("Authorization", "Bearer " + customerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PayLoanRequest(new BigDecimal("300")))))
+                .andExpect(status().isOk())
+                .andExpect(atMost(PAY_LOAN_BUDGET));
+    }
+
+    @Test
+    void statementBudget_PayBatch_IndependentOfCustomerCount() throws Exception {
+        long acrossTwoCustomers = SqlStatements.count(payBatch(loansOfNewCustomers(2)));
+        MvcResult acrossTwentyCustomers = payBatch(loansOfNewCustomers(20));
+
+        assertEquals(acrossTwoCustomers, SqlStatements.count(acrossTwentyCustomers));
+        atMost(PAY_BATCH_BUDGET).match(acrossTwentyCustomers);
+    }
+
+    @Test
+    void conditionalGet_NotModifiedUntilPayment() throws Exception {
+        Long loanId = createLoan(6);
+        String loansETag = listLoans().getResponse().getHeader(HttpHeaders.ETAG);
+        String installmentsETag = listInstallments(loanId).getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(loansETag);
+        assertNotNull(installmentsETag);
+
+        mockMvc.perform(get("/api/loans")
+                        .header("Authorization", "Bearer " + customerToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, loansETag)
+                        .param("customerId", customerId.toString()))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/loans/" + loanId + "/installments")
+                        .header("Authorization", "Bearer " + customerToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, installmentsETag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/api/loans/" + loanId + "/pay")
+                        .with(csrf())
+                        .header("Authorization", "Bearer " + customerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PayLoanRequest(new BigDecimal("20")))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/loans")
+                        .header("Authorization", "Bearer " + customerToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, loansETag)
+                        .param("customerId", customerId.toString()))
+                .andExpect(status().isOk());
+        MvcResult installments = mockMvc.perform(get("/api/loans/" + loanId + "/installments")
+                        .header("Authorization", "Bearer " + customerToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, installmentsETag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(installmentsETag, installments.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    private Long createLoan(int numberOfInstallments) throws Exception {
+        CreateLoanRequest request = CreateLoanRequest.builder()
+                .customerId(customerId)
+                .amount(new BigDecimal("100"))
+                .interestRate(new BigDecimal("0.2"))
+                .numberOfInstallments(numberOfInstallments)
+                .build();
+
+        MvcResult result = mockMvc.perform(post("/api/loans")
+                        .with(csrf())
+                        .header("Authorization", "Bearer " + customerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), LoanResponse.class).getId();
+    }
+
+    // One loan for each of that many new customers
+    private List<Long> loansOfNewCustomers(int customers) throws Exception {
+        List<Long> loanIds = new ArrayList<>();
+        for (int i = 0; i < customers; i++) {
+            Customer customer = customerRepository.save(Customer.builder()
+                    .name("Batch")
+                    .surname("Customer" + i)
+                    .creditLimit(Money.of("10000"))
+                    .usedCreditLimit(Money.ZERO)
+                    .build());
+            CreateLoanRequest request = CreateLoanRequest.builder()
+                    .customerId(customer.getId())
+                    .amount(new BigDecimal("100"))
+                    .interestRate(new BigDecimal("0.2"))
+                    .numberOfInstallments(6)
+                    .build();
+            MvcResult result = mockMvc.perform(post("/api/loans")
+                            .with(csrf())
+                            .header("Authorization", "Bearer " + adminToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            loanIds.add(objectMapper.readValue(result.getResponse().getContentAsString(), LoanResponse.class).getId());
+        }
+        return loanIds;
+    }
+
+    private MvcResult payBatch(List<Long> loanIds) throws Exception {
+        BatchPaymentRequest request = new BatchPaymentRequest(loanIds.stream()
+                .map(loanId -> new BatchPaymentRequest.PaymentItem(loanId, new BigDecimal("20")))
+                .toList());
+        return mockMvc.perform(post("/api/loans/payments/batch")
+                        .with(csrf())
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(loanIds.size()))
+                .andReturn();
+    }
+
+    private MvcResult listLoans() throws Exception {
+        return mockMvc.perform(get("/api/loans")
+                        .header("Authorization", "Bearer " + customerToken)
+                        .param("customerId", customerId.toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private MvcResult listInstallments(Long loanId) throws Exception {
+        return mockMvc.perform(get("/api/loans/" + loanId + "/installments")
+                        .header("Authorization", "Bearer " + customerToken))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+}
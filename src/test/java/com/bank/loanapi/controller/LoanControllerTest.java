@@ -1,8 +1,25 @@
 package com.bank.loanapi.controller;
 
+import com.bank.loanapi.dto.request.BatchPaymentRequest;
 import com.bank.loanapi.dto.request.CreateLoanRequest;
+import com.bank.loanapi.dto.request.LoanSearchCriteria;
+import com.bank.loanapi.dto.request.PayLoanRequest;
+import com.bank.loanapi.dto.response.BatchPaymentResponse;
+import com.bank.loanapi.dto.response.InstallmentResponse;
+import com.bank.loanapi.dto.response.LoanPageResponse;
+import com.bank.loanapi.dto.response.LoanQuoteResponse;
 import com.bank.loanapi.dto.response.LoanResponse;
+import com.bank.loanapi.dto.response.PaymentQuoteResponse;
+import com.bank.loanapi.dto.response.PaymentResultResponse;
+import com.bank.loanapi.money.Money;
+import com.bank.loanapi.repository.CustomerLoansVersion;
+import com.bank.loanapi.repository.LoanScheduleVersion;
+import com.bank.loanapi.repository.ReadYourWrites;
 import com.bank.loanapi.security.JwtAuthenticationFilter;
+import com.bank.loanapi.service.BatchPaymentService;
+import com.bank.loanapi.service.CustomerWriteExecutor;
+import com.bank.loanapi.service.IdempotentPaymentService;
+import com.bank.loanapi.service.LoanQuoteService;
 import com.bank.loanapi.service.LoanService;
 import com.bank.loanapi.service.PaymentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,16 +30,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -31,6 +55,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(controllers = LoanController.class,
         excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
                 classes = JwtAuthenticationFilter.class))
+@Import(CustomerWriteExecutor.class)
 class LoanControllerTest {
 
     @Autowired
@@ -45,6 +70,18 @@ class LoanControllerTest {
     @MockBean
     private PaymentService paymentService;
 
+    @MockBean
+    private BatchPaymentService batchPaymentService;
+
+    @MockBean
+    private IdempotentPaymentService idempotentPaymentService;
+
+    @MockBean
+    private LoanQuoteService loanQuoteService;
+
+    @MockBean
+    private ReadYourWrites readYourWrites;
+
     private CreateLoanRequest createLoanRequest;
     private LoanResponse loanResponse;
 
@@ -61,12 +98,12 @@ class LoanControllerTest {
                 .id(1L)
                 .customerId(1L)
                 .customerName("John Doe")
-                .loanAmount(new BigDecimal("1000"))
+                .loanAmount(Money.of("1000"))
                 .numberOfInstallments(6)
                 .interestRate(new BigDecimal("0.2"))
                 .createDate(LocalDateTime.now())
                 .isPaid(false)
-                .totalAmount(new BigDecimal("1200"))
+                .totalAmount(Money.of("1200"))
                 .paidInstallments(0)
                 .remainingInstallments(6)
                 .build();
@@ -85,25 +122,90 @@ class LoanControllerTest {
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.loanAmount").value(1000))
                 .andExpect(jsonPath("$.numberOfInstallments").value(6));
+
+        verify(readYourWrites).pinCurrentUser();
     }
 
     @Test
     @WithMockUser(roles = "CUSTOMER")
     void listLoans_Success() throws Exception {
         List<LoanResponse> loans = Arrays.asList(loanResponse);
+        when(loanService.findLoansVersion(1L)).thenReturn(new CustomerLoansVersion(1L, 0L));
         when(loanService.listLoans(1L, null, null)).thenReturn(loans);
 
         mockMvc.perform(get("/api/loans")
                         .param("customerId", "1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"loans-1-0\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].loanAmount").value(1000));
     }
 
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void listLoans_MatchingETag_NotModified() throws Exception {
+        when(loanService.findLoansVersion(1L)).thenReturn(new CustomerLoansVersion(1L, 0L));
+
+        mockMvc.perform(get("/api/loans")
+                        .param("customerId", "1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"loans-1-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(loanService, never()).listLoans(any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void listLoans_StaleETag_ReturnsLoans() throws Exception {
+        when(loanService.findLoansVersion(1L)).thenReturn(new CustomerLoansVersion(2L, 3L));
+        when(loanService.listLoans(1L, null, null)).thenReturn(Arrays.asList(loanResponse));
+
+        mockMvc.perform(get("/api/loans")
+                        .param("customerId", "1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"loans-1-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"loans-2-3\""))
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void listInstallments_PaidLoan_CachedLongTerm() throws Exception {
+        when(loanService.findScheduleVersion(1L)).thenReturn(new LoanScheduleVersion(1L, true, 7L, 12L));
+        when(loanService.listInstallments(1L)).thenReturn(List.of(InstallmentResponse.builder()
+                .id(10L)
+                .loanId(1L)
+                .amount(Money.of("200"))
+                .isPaid(true)
+                .installmentNumber(1)
+                .build()));
+
+        mockMvc.perform(get("/api/loans/1/installments"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"installments-7-12\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, private, immutable"))
+                .andExpect(jsonPath("$[0].id").value(10));
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void listInstallments_MatchingETag_NotModified() throws Exception {
+        when(loanService.findScheduleVersion(1L)).thenReturn(new LoanScheduleVersion(1L, false, 2L, 3L));
+
+        mockMvc.perform(get("/api/loans/1/installments")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"installments-2-3\""))
+                .andExpect(status().isNotModified());
+
+        verify(loanService, never()).listInstallments(any());
+    }
+
     @Test
     @WithMockUser(roles = "CUSTOMER")
     void listLoans_WithFilters_Success() throws Exception {
         List<LoanResponse> loans = Arrays.asList(loanResponse);
+        when(loanService.findLoansVersion(1L)).thenReturn(new CustomerLoansVersion(1L, 0L));
         when(loanService.listLoans(1L, 6, false)).thenReturn(loans);
 
         mockMvc.perform(get("/api/loans")
@@ -114,6 +216,163 @@ class LoanControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1));
     }
 
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void listLoansPage_Success() throws Exception {
+        LoanPageResponse page = LoanPageResponse.builder()
+                .loans(List.of(loanResponse))
+                .size(1)
+                .hasMore(true)
+                .nextCursor("djE6MQ")
+                .build();
+        LoanSearchCriteria criteria = LoanSearchCriteria.builder()
+                .customerId(1L)
+                .isPaid(false)
+                .minAmount(new BigDecimal("500"))
+                .createdFrom(LocalDate.of(2024, 1, 1))
+                .build();
+        when(loanService.listLoansPage(criteria, null, 1)).thenReturn(page);
+
+        mockMvc.perform(get("/api/loans/page")
+                        .param("customerId", "1")
+                        .param("isPaid", "false")
+                        .param("minAmount", "500")
+                        .param("createdFrom", "2024-01-01")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.loans[0].id").value(1))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("djE6MQ"));
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void payLoan_Success() throws Exception {
+        PaymentResultResponse result = PaymentResultResponse.builder()
+                .installmentsPaid(1)
+                .totalAmountSpent(Money.of("200"))
+                .isLoanFullyPaid(false)
+                .remainingLoanAmount(Money.of("1000"))
+                .paidInstallments(List.of())
+                .build();
+        when(loanService.findCustomerIdForLoan(1L)).thenReturn(1L);
+        when(paymentService.payLoan(any(), any(PayLoanRequest.class))).thenReturn(result);
+
+        mockMvc.perform(post("/api/loans/1/pay")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PayLoanRequest(new BigDecimal("200")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.installmentsPaid").value(1));
+
+        verify(readYourWrites).pinCurrentUser();
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void payLoan_WithIdempotencyKey_UsesIdempotentPath() throws Exception {
+        PaymentResultResponse result = PaymentResultResponse.builder()
+                .installmentsPaid(1)
+                .totalAmountSpent(Money.of("200"))
+                .isLoanFullyPaid(false)
+                .remainingLoanAmount(Money.of("1000"))
+                .paidInstallments(List.of())
+                .build();
+        when(idempotentPaymentService.payLoan(eq("retry-1"), eq(1L), any(PayLoanRequest.class))).thenReturn(result);
+
+        mockMvc.perform(post("/api/loans/1/pay")
+                        .with(csrf())
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PayLoanRequest(new BigDecimal("200")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.installmentsPaid").value(1));
+
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void quoteLoan_Success() throws Exception {
+        LoanQuoteResponse quote = LoanQuoteResponse.builder()
+                .loanAmount(Money.of("1000"))
+                .interestRate(new BigDecimal("0.2"))
+                .numberOfInstallments(6)
+                .totalAmount(Money.of("1200.00"))
+                .installments(List.of(LoanQuoteResponse.ScheduledInstallment.builder()
+                        .installmentNumber(1)
+                        .dueDate(LocalDate.of(2026, 11, 1))
+                        .amount(Money.of("200.00"))
+                        .build()))
+                .build();
+        when(loanQuoteService.quoteLoan(new BigDecimal("1000"), new BigDecimal("0.2"), 6)).thenReturn(quote);
+
+        mockMvc.perform(get("/api/loans/quote")
+                        .param("amount", "1000")
+                        .param("interestRate", "0.2")
+                        .param("numberOfInstallments", "6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalAmount").value(1200.00))
+                .andExpect(jsonPath("$.installments[0].dueDate").value("2026-11-01"));
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void quotePayment_DoesNotPay() throws Exception {
+        PaymentQuoteResponse quote = PaymentQuoteResponse.builder()
+                .loanId(1L)
+                .amount(Money.of("200"))
+                .payment(PaymentResultResponse.builder().installmentsPaid(1).build())
+                .payoffAmount(Money.of("1180.50"))
+                .build();
+        when(loanQuoteService.quotePayment(1L, new BigDecimal("200"))).thenReturn(quote);
+
+        mockMvc.perform(get("/api/loans/1/payment-quote").param("amount", "200"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payment.installmentsPaid").value(1))
+                .andExpect(jsonPath("$.payoffAmount").value(1180.50));
+
+        verifyNoInteractions(paymentService, idempotentPaymentService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void payLoans_ReturnsResultPerItem() throws Exception {
+        BatchPaymentRequest request = new BatchPaymentRequest(List.of(
+                new BatchPaymentRequest.PaymentItem(1L, new BigDecimal("200")),
+                new BatchPaymentRequest.PaymentItem(99L, new BigDecimal("200"))));
+        BatchPaymentResponse response = BatchPaymentResponse.builder()
+                .succeeded(1)
+                .failed(1)
+                .results(List.of(
+                        BatchPaymentResponse.ItemResult.builder().index(0).loanId(1L).status("SUCCESS").build(),
+                        BatchPaymentResponse.ItemResult.builder().index(1).loanId(99L).status("FAILED")
+                                .error("Loan not found").build()))
+                .build();
+        when(batchPaymentService.payLoans(any(BatchPaymentRequest.class))).thenReturn(response);
+
+        mockMvc.perform(post("/api/loans/payments/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[1].error").value("Loan not found"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void payLoans_InvalidItem_ValidationError() throws Exception {
+        BatchPaymentRequest request = new BatchPaymentRequest(List.of(
+                new BatchPaymentRequest.PaymentItem(1L, BigDecimal.ZERO)));
+
+        mockMvc.perform(post("/api/loans/payments/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void createLoan_Unauthorized() throws Exception {
         mockMvc.perform(post("/api/loans")
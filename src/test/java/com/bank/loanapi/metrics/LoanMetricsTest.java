@@ -0,0 +1,60 @@
+package com.bank.loanapi.metrics;
+
+import com.bank.loanapi.dto.response.PaymentResultResponse.InstallmentPaymentDetail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoanMetrics loanMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loanMetrics = new LoanMetrics(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void installmentsPaid_CountsByPaymentType() {
+        loanMetrics.installmentsPaid(List.of(detail("EARLY"), detail("EARLY"), detail("LATE")));
+
+        assertEquals(2.0, paid("EARLY"));
+        assertEquals(0.0, paid("ON_TIME"));
+        assertEquals(1.0, paid("LATE"));
+    }
+
+    @Test
+    void loansCreated_InsideTransaction_CountedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        loanMetrics.loansCreated(3);
+        assertEquals(0.0, meterRegistry.get("loans.created").functionCounter().count());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(3.0, meterRegistry.get("loans.created").functionCounter().count());
+    }
+
+    private double paid(String paymentType) {
+        return meterRegistry.get("installments.paid").tag("type", paymentType).functionCounter().count();
+    }
+
+    private static InstallmentPaymentDetail detail(String paymentType) {
+        return InstallmentPaymentDetail.builder().paymentType(paymentType).build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.bank.loanapi.metrics;
+
+import com.bank.loanapi.entity.Customer;
+import com.bank.loanapi.money.Money;
+import com.bank.loanapi.repository.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheMetricsTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void cacheRegions_ExportHitsAndMisses_WithoutHibernateStatistics() {
+        assertFalse(entityManagerFactory.unwrap(SessionFactory.class).getStatistics().isStatisticsEnabled());
+        Long customerId = customerRepository.save(Customer.builder()
+                .name("John")
+                .surname("Doe")
+                .creditLimit(Money.of("10000"))
+                .usedCreditLimit(Money.ZERO)
+                .build()).getId();
+        entityManagerFactory.getCache().evictAll();
+        double hitsBefore = cacheGets("hit");
+        double missesBefore = cacheGets("miss");
+
+        customerRepository.findById(customerId);
+        assertTrue(cacheGets("miss") > missesBefore);
+        assertEquals(hitsBefore, cacheGets("hit"));
+
+        customerRepository.findById(customerId);
+        assertEquals(hitsBefore + 1, cacheGets("hit"));
+        customerRepository.deleteById(customerId);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "customers", "result", result).functionCounter().count();
+    }
+}
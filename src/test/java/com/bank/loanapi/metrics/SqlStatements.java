@@ -0,0 +1,36 @@
+package com.bank.loanapi.metrics;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MockMvc matchers over the {@link StatementCountHeaderAdvice#HEADER} header, for tests that pin the number
+ * of SQL statements an endpoint may issue:
+ * <pre>
+ * mockMvc.perform(get("/api/loans").param("customerId", "1"))
+ *         .andExpect(SqlStatements.atMost(2));
+ * </pre>
+ * Requires {@code sql.statements.response-header=true}.
+ */
+public final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    public static ResultMatcher atMost(long budget) {
+        return result -> {
+            long statements = count(result);
+            assertTrue(statements <= budget, () -> String.format("%s %s issued %d SQL statements, budget is %d",
+                    result.getRequest().getMethod(), result.getRequest().getRequestURI(), statements, budget));
+        };
+    }
+
+    public static long count(MvcResult result) {
+        String header = result.getResponse().getHeader(StatementCountHeaderAdvice.HEADER);
+        assertNotNull(header, "No " + StatementCountHeaderAdvice.HEADER + " header; is sql.statements.response-header enabled?");
+        return Long.parseLong(header);
+    }
+}
@@ -0,0 +1,78 @@
+package com.bank.loanapi.money;
+
+import com.bank.loanapi.dto.response.PaymentResultResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void of_RoundsHalfUpToCents() {
+        assertEquals(100_001L, Money.of("1000.005").cents());
+        assertEquals(100_000L, Money.of("1000.0049").cents());
+        assertEquals(-100_001L, Money.of("-1000.005").cents());
+        assertEquals(120_000L, Money.of("1.2E+3").cents());
+        assertEquals(Money.of("200"), Money.of("200.00"));
+        assertThrows(ArithmeticException.class, () -> Money.of("1E+18"));
+    }
+
+    @Test
+    void multiply_MatchesBigDecimalHalfUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long cents = random.nextLong(-10_000_000_000L, 10_000_000_000L);
+            BigDecimal factor = BigDecimal.valueOf(random.nextLong(-100_000, 100_000), random.nextInt(7));
+
+            BigDecimal expected = BigDecimal.valueOf(cents, 2).multiply(factor).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expected, Money.ofCents(cents).multiply(factor).toBigDecimal(), () -> cents + " x " + factor);
+        }
+    }
+
+    @Test
+    void multiply_FallsBackWhenTheProductOverflows() {
+        Money large = Money.ofCents(Long.MAX_VALUE / 10);
+
+        assertEquals(BigDecimal.valueOf(Long.MAX_VALUE / 10, 2).multiply(new BigDecimal("0.75"))
+                        .setScale(2, RoundingMode.HALF_UP),
+                large.multiply(75, 100).toBigDecimal());
+    }
+
+    @Test
+    void divide_RoundsHalfUp() {
+        assertEquals(Money.of("191.67"), Money.of("1150.00").divide(6));
+        assertEquals(Money.of("0.01"), Money.of("0.05").divide(6));
+        assertEquals(Money.of("-0.01"), Money.of("-0.05").divide(6));
+    }
+
+    @Test
+    void json_IsAPlainNumberWithTwoDecimals() throws Exception {
+        PaymentResultResponse response = PaymentResultResponse.builder()
+                .totalAmountSpent(Money.of("396.1"))
+                .remainingLoanAmount(Money.ZERO)
+                .build();
+
+        String json = objectMapper.writeValueAsString(response);
+
+        assertTrue(json.contains("\"totalAmountSpent\":396.10"), json);
+        assertTrue(json.contains("\"remainingLoanAmount\":0.00"), json);
+        assertEquals(response, objectMapper.readValue(json, PaymentResultResponse.class));
+    }
+
+    @Test
+    void converter_RoundTripsThroughTheColumnType() {
+        MoneyConverter converter = new MoneyConverter();
+
+        assertEquals(new BigDecimal("1200.50"), converter.convertToDatabaseColumn(Money.of("1200.5")));
+        assertEquals(Money.of("1200.50"), converter.convertToEntityAttribute(new BigDecimal("1200.5000")));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
@@ -0,0 +1,76 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.exception.DatabaseBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DatabaseConcurrencyLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DatabaseConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new DatabaseConcurrencyLimiter(meterRegistry);
+        ReflectionTestUtils.setField(limiter, "maxConcurrency", 1);
+        ReflectionTestUtils.setField(limiter, "acquireTimeout", Duration.ofMillis(100));
+        limiter.init();
+    }
+
+    @Test
+    void limit_NestedCallsOnSameThread_ShareOnePermit() throws Throwable {
+        ProceedingJoinPoint inner = joinPoint(() -> meterRegistry.get("db.limiter.active").gauge().value());
+        ProceedingJoinPoint outer = joinPoint(() -> limiter.limit(inner));
+
+        assertEquals(1.0, limiter.limit(outer));
+        assertEquals(0.0, meterRegistry.get("db.limiter.active").gauge().value());
+    }
+
+    @Test
+    void limit_NoPermitWithinTimeout_RejectsAndCounts() throws Throwable {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.limit(joinPoint(() -> {
+                    holding.countDown();
+                    return release.await(5, TimeUnit.SECONDS);
+                }));
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        assertThrows(DatabaseBusyException.class, () -> limiter.limit(joinPoint(() -> "never")));
+        assertEquals(1.0, meterRegistry.get("db.limiter.rejected").counter().count());
+
+        release.countDown();
+        assertEquals(true, holder.get(5, TimeUnit.SECONDS));
+        assertEquals("after", limiter.limit(joinPoint(() -> "after")));
+    }
+
+    private static ProceedingJoinPoint joinPoint(ThrowingSupplier body) throws Throwable {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenAnswer(invocation -> body.get());
+        return joinPoint;
+    }
+
+    @FunctionalInterface
+    private interface ThrowingSupplier {
+        Object get() throws Throwable;
+    }
+}
@@ -0,0 +1,295 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.dto.request.InstallmentSearchCriteria;
+import com.bank.loanapi.dto.request.LoanSearchCriteria;
+import com.bank.loanapi.dto.response.InstallmentResponse;
+import com.bank.loanapi.dto.response.LoanResponse;
+import com.bank.loanapi.entity.Customer;
+import com.bank.loanapi.entity.Loan;
+import com.bank.loanapi.entity.LoanInstallment;
+import com.bank.loanapi.money.Money;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class LoanRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanInstallmentRepository installmentRepository;
+
+    private Customer customer;
+    private Customer otherCustomer;
+    private Loan twelveMonthLoan;
+    private Loan overdueLoan;
+
+    @BeforeEach
+    void setUp() {
+        customer = entityManager.persist(Customer.builder()
+                .name("John")
+                .surname("Doe")
+                .creditLimit(Money.of("100000"))
+                .usedCreditLimit(Money.ZERO)
+                .build());
+
+        otherCustomer = entityManager.persist(Customer.builder()
+                .name("Jane")
+                .surname("Smith")
+                .creditLimit(Money.of("100000"))
+                .usedCreditLimit(Money.ZERO)
+                .build());
+
+        persistLoan(customer, 6, 2, false);
+        twelveMonthLoan = persistLoan(customer, 12, 0, false);
+        persistLoan(customer, 6, 6, true);
+        persistLoan(otherCustomer, 6, 1, false);
+        overdueLoan = persistOverdueLoan(otherCustomer);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Loan persistLoan(Customer owner, int numberOfInstallments, int paidInstallments, boolean isPaid) {
+        Loan loan = Loan.builder()
+                .customer(owner)
+                .loanAmount(Money.of("1000.00"))
+                .numberOfInstallment(numberOfInstallments)
+                .interestRate(new BigDecimal("0.20"))
+                .createDate(LocalDateTime.now())
+                .isPaid(isPaid)
+                .paidInstallmentCount(paidInstallments)
+                .remainingAmount(Money.of("200.00").multiply(numberOfInstallments - paidInstallments))
+                .installments(new ArrayList<>())
+                .build();
+
+        for (int i = 0; i < numberOfInstallments; i++) {
+            boolean paid = i < paidInstallments;
+            loan.getInstallments().add(LoanInstallment.builder()
+                    .loan(loan)
+                    .amount(Money.of("200.00"))
+                    .paidAmount(paid ? Money.of("200.00") : Money.ZERO)
+                    .dueDate(LocalDate.now().plusMonths(numberOfInstallments - i).withDayOfMonth(1))
+                    .isPaid(paid)
+                    .build());
+        }
+
+        loan.setNextDueDate(loan.getInstallments().stream()
+                .filter(installment -> !installment.getIsPaid())
+                .map(LoanInstallment::getDueDate)
+                .min(LocalDate::compareTo)
+                .orElse(null));
+
+        return entityManager.persist(loan);
+    }
+
+    // Six installments starting three months ago, the first paid and the next two past due
+    private Loan persistOverdueLoan(Customer owner) {
+        Loan loan = Loan.builder()
+                .customer(owner)
+                .loanAmount(Money.of("1000.00"))
+                .numberOfInstallment(6)
+                .interestRate(new BigDecimal("0.20"))
+                .createDate(LocalDateTime.now().minusMonths(4))
+                .isPaid(false)
+                .paidInstallmentCount(1)
+                .remainingAmount(Money.of("1000.00"))
+                .nextDueDate(LocalDate.now().minusMonths(2))
+                .installments(new ArrayList<>())
+                .build();
+
+        for (int i = 0; i < 6; i++) {
+            loan.getInstallments().add(LoanInstallment.builder()
+                    .loan(loan)
+                    .amount(Money.of("200.00"))
+                    .paidAmount(i == 0 ? Money.of("200.00") : Money.ZERO)
+                    .dueDate(LocalDate.now().minusMonths(3 - i))
+                    .isPaid(i == 0)
+                    .build());
+        }
+
+        return entityManager.persist(loan);
+    }
+
+    @Test
+    void findLoanResponses_NoFilters_ReturnsCustomerLoansWithPaidCounts() {
+        List<LoanResponse> loans = loanRepository.findLoanResponses(customer.getId(), null, null);
+
+        assertEquals(3, loans.size());
+        assertEquals("John Doe", loans.get(0).getCustomerName());
+        assertEquals(customer.getId(), loans.get(0).getCustomerId());
+        assertEquals(2, loans.get(0).getPaidInstallments());
+        assertEquals(4, loans.get(0).getRemainingInstallments());
+        assertEquals(0, loans.get(1).getPaidInstallments());
+        assertEquals(12, loans.get(1).getRemainingInstallments());
+        assertEquals(6, loans.get(2).getPaidInstallments());
+        assertEquals(Money.of("1200.00"), loans.get(0).getTotalAmount());
+    }
+
+    @Test
+    void findLoanResponses_CombinedFilters_FilteredInQuery() {
+        List<LoanResponse> unpaidSixMonth = loanRepository.findLoanResponses(customer.getId(), 6, false);
+        List<LoanResponse> paid = loanRepository.findLoanResponses(customer.getId(), null, true);
+        List<LoanResponse> twelveMonth = loanRepository.findLoanResponses(customer.getId(), 12, null);
+
+        assertEquals(1, unpaidSixMonth.size());
+        assertEquals(2, unpaidSixMonth.get(0).getPaidInstallments());
+        assertEquals(1, paid.size());
+        assertTrue(paid.get(0).getIsPaid());
+        assertEquals(1, twelveMonth.size());
+        assertEquals(12, twelveMonth.get(0).getNumberOfInstallments());
+    }
+
+    @Test
+    void findByIdWithInstallments_FetchesCustomerAndOrderedSchedule() {
+        Loan loan = loanRepository.findByIdWithInstallments(twelveMonthLoan.getId()).orElseThrow();
+
+        assertTrue(Hibernate.isInitialized(loan.getCustomer()));
+        assertTrue(Hibernate.isInitialized(loan.getInstallments()));
+        assertEquals(12, loan.getInstallments().size());
+        for (int i = 1; i < loan.getInstallments().size(); i++) {
+            assertTrue(loan.getInstallments().get(i - 1).getDueDate()
+                    .isBefore(loan.getInstallments().get(i).getDueDate()));
+        }
+    }
+
+    @Test
+    void findLoanPage_WalksLoansInIdOrderAfterCursor() {
+        LoanSearchCriteria criteria = LoanSearchCriteria.builder().customerId(customer.getId()).build();
+
+        List<LoanResponse> firstPage = loanRepository.findLoanPage(criteria, null, 2);
+        List<LoanResponse> secondPage = loanRepository.findLoanPage(criteria, firstPage.get(1).getId(), 2);
+
+        assertEquals(2, firstPage.size());
+        assertEquals(1, secondPage.size());
+        assertTrue(firstPage.get(0).getId() < firstPage.get(1).getId());
+        assertTrue(firstPage.get(1).getId() < secondPage.get(0).getId());
+        assertEquals(2, firstPage.get(0).getPaidInstallments());
+        assertEquals(6, secondPage.get(0).getPaidInstallments());
+    }
+
+    @Test
+    void findLoanPage_AppliesOnlyProvidedFilters() {
+        LoanSearchCriteria unpaidSixMonth = LoanSearchCriteria.builder()
+                .customerId(customer.getId())
+                .isPaid(false)
+                .numberOfInstallments(6)
+                .build();
+        LoanSearchCriteria createdToday = LoanSearchCriteria.builder()
+                .customerId(customer.getId())
+                .createdFrom(LocalDate.now())
+                .createdTo(LocalDate.now())
+                .minAmount(new BigDecimal("500"))
+                .maxAmount(new BigDecimal("1000"))
+                .build();
+        LoanSearchCriteria tooLarge = LoanSearchCriteria.builder()
+                .customerId(customer.getId())
+                .minAmount(new BigDecimal("1000.01"))
+                .build();
+
+        assertEquals(1, loanRepository.findLoanPage(unpaidSixMonth, null, 10).size());
+        assertEquals(3, loanRepository.findLoanPage(createdToday, null, 10).size());
+        assertTrue(loanRepository.findLoanPage(tooLarge, null, 10).isEmpty());
+    }
+
+    @Test
+    void findAllWithInstallmentsByIdIn_LoadsRequestedLoansWithSchedules() {
+        List<Long> ids = loanRepository.findLoanResponses(customer.getId(), null, null).stream()
+                .map(LoanResponse::getId)
+                .toList();
+
+        List<Loan> loans = loanRepository.findAllWithInstallmentsByIdIn(ids);
+
+        assertEquals(3, loans.size());
+        for (Loan loan : loans) {
+            assertTrue(Hibernate.isInitialized(loan.getCustomer()));
+            assertTrue(Hibernate.isInitialized(loan.getInstallments()));
+            assertEquals(loan.getNumberOfInstallment(), loan.getInstallments().size());
+        }
+    }
+
+    @Test
+    void findLoanPage_WithoutCustomer_SearchesAllCustomers() {
+        LoanSearchCriteria unpaidSixMonth = LoanSearchCriteria.builder()
+                .isPaid(false)
+                .numberOfInstallments(6)
+                .build();
+
+        List<LoanResponse> loans = loanRepository.findLoanPage(unpaidSixMonth, null, 10);
+
+        assertEquals(3, loans.size());
+        assertEquals(List.of(customer.getId(), otherCustomer.getId(), otherCustomer.getId()),
+                loans.stream().map(LoanResponse::getCustomerId).toList());
+    }
+
+    @Test
+    void findLoanPage_OverdueAndNextDueRange_FilterOnNextDueDate() {
+        LoanSearchCriteria overdue = LoanSearchCriteria.builder().overdue(true).build();
+        LoanSearchCriteria dueThisYear = LoanSearchCriteria.builder()
+                .dueFrom(LocalDate.now())
+                .dueTo(LocalDate.now().plusYears(1))
+                .build();
+
+        List<LoanResponse> overdueLoans = loanRepository.findLoanPage(overdue, null, 10);
+
+        assertEquals(1, overdueLoans.size());
+        assertEquals(overdueLoan.getId(), overdueLoans.get(0).getId());
+        assertEquals(3, loanRepository.findLoanPage(dueThisYear, null, 10).size());
+    }
+
+    @Test
+    void findInstallmentPage_Overdue_ReturnsUnpaidPastDueAcrossCustomers() {
+        InstallmentSearchCriteria overdue = InstallmentSearchCriteria.builder().overdue(true).build();
+
+        List<InstallmentResponse> installments = installmentRepository.findInstallmentPage(overdue, null, 10);
+
+        assertEquals(2, installments.size());
+        for (InstallmentResponse installment : installments) {
+            assertEquals(overdueLoan.getId(), installment.getLoanId());
+            assertFalse(installment.getIsPaid());
+            assertTrue(installment.getDueDate().isBefore(LocalDate.now()));
+        }
+    }
+
+    @Test
+    void findInstallmentPage_WalksInIdOrderWithLoanFilters() {
+        InstallmentSearchCriteria unpaidForCustomer = InstallmentSearchCriteria.builder()
+                .customerId(customer.getId())
+                .isPaid(false)
+                .numberOfInstallments(12)
+                .minAmount(new BigDecimal("199.999"))
+                .maxAmount(new BigDecimal("200.001"))
+                .build();
+
+        List<InstallmentResponse> firstPage = installmentRepository.findInstallmentPage(unpaidForCustomer, null, 8);
+        List<InstallmentResponse> secondPage = installmentRepository.findInstallmentPage(
+                unpaidForCustomer, firstPage.get(firstPage.size() - 1).getId(), 8);
+
+        assertEquals(8, firstPage.size());
+        assertEquals(4, secondPage.size());
+        assertTrue(firstPage.get(7).getId() < secondPage.get(0).getId());
+        assertTrue(firstPage.stream().allMatch(installment -> installment.getLoanId().equals(twelveMonthLoan.getId())));
+        assertTrue(installmentRepository.findInstallmentPage(InstallmentSearchCriteria.builder()
+                .loanId(twelveMonthLoan.getId())
+                .dueFrom(LocalDate.now().plusYears(2))
+                .build(), null, 10).isEmpty());
+    }
+}
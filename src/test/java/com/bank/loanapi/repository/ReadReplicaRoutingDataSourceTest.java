@@ -0,0 +1,78 @@
+package com.bank.loanapi.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final ReadYourWrites readYourWrites = mock(ReadYourWrites.class);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReadReplicaHealth replicaHealth;
+    private ReadReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        meterRegistry = new SimpleMeterRegistry();
+        replicaHealth = new ReadReplicaHealth(replica);
+        routing = new ReadReplicaRoutingDataSource(primary, replica, replicaHealth, readYourWrites, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void getConnection_ReadOnlyTransaction_UsesReplica() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replicaConnection, routing.getConnection());
+        assertEquals(1.0, meterRegistry.get("db.routing.connections").tag("target", "replica").counter().count());
+    }
+
+    @Test
+    void getConnection_ReadWriteOrPinned_UsesPrimary() throws SQLException {
+        assertSame(primaryConnection, routing.getConnection());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(readYourWrites.isCurrentUserPinned()).thenReturn(true);
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void getConnection_ReplicaFails_FallsBackToPrimaryUntilHealthCheckPasses() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, routing.getConnection());
+        assertFalse(replicaHealth.isUp());
+
+        replicaHealth.check();
+        assertFalse(replicaHealth.isUp());
+
+        doReturn(replicaConnection).when(replica).getConnection();
+        when(replicaConnection.isValid(2)).thenReturn(true);
+        replicaHealth.check();
+        assertTrue(replicaHealth.isUp());
+        assertSame(replicaConnection, routing.getConnection());
+    }
+}
@@ -0,0 +1,181 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.entity.Customer;
+import com.bank.loanapi.entity.IdempotencyRecord;
+import com.bank.loanapi.entity.Loan;
+import com.bank.loanapi.entity.PenaltyAccrualCheckpoint;
+import com.bank.loanapi.money.Money;
+import com.bank.loanapi.service.LoanService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and the replica. The replica gets the primary's schema
+ * but none of its rows, so a read that finds a row just written went to the primary.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"spring.datasource.url=jdbc:h2:mem:routingprimary;DB_CLOSE_DELAY=-1",
+                "replica.datasource.url=jdbc:h2:mem:routingreplica;DB_CLOSE_DELAY=-1",
+                "replica.datasource.username=sa",
+                "replica.health-check-interval=PT1H"})
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private ReadReplicaHealth replicaHealth;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private PenaltyAccrualCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private LoanService loanService;
+
+    private Long customerId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path schema = Files.createTempFile("schema", ".sql");
+        try {
+            jdbcTemplate.execute("SCRIPT NODATA TO '" + schema + "'");
+            JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+            replica.execute("DROP ALL OBJECTS");
+            replica.execute("RUNSCRIPT FROM '" + schema + "'");
+        } finally {
+            Files.delete(schema);
+        }
+
+        customerId = customerRepository.save(Customer.builder()
+                .name("Read")
+                .surname("Replica")
+                .creditLimit(Money.of("1000.00"))
+                .usedCreditLimit(Money.ZERO)
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        replicaHealth.check();
+    }
+
+    @Test
+    void readOnlyTransactions_GoToReplica_OthersToPrimary() {
+        // findById runs in a read-only transaction of its own
+        assertTrue(customerRepository.findById(customerId).isEmpty());
+        assertTrue(transactionTemplate.execute(status -> customerRepository.findById(customerId)).isPresent());
+    }
+
+    @Test
+    void pinnedUser_ReadsFromPrimary() {
+        authenticate("writer");
+        readYourWrites.pinCurrentUser();
+        assertTrue(customerRepository.findById(customerId).isPresent());
+
+        authenticate("reader");
+        assertTrue(customerRepository.findById(customerId).isEmpty());
+    }
+
+    @Test
+    void replicaDown_ReadsFromPrimaryUntilItRecovers() {
+        replicaHealth.markDown(new SQLException("Connection refused"));
+        assertTrue(customerRepository.findById(customerId).isPresent());
+
+        replicaHealth.check();
+        assertTrue(customerRepository.findById(customerId).isEmpty());
+    }
+
+    @Test
+    void replicaReads_NeverPutIntoSecondLevelCache() {
+        new JdbcTemplate(replicaDataSource).update("INSERT INTO customers " +
+                "(id, name, surname, credit_limit, used_credit_limit, version) VALUES (?, 'Read', 'Lagging', 1000, 0, 0)",
+                customerId);
+        entityManagerFactory.getCache().evictAll();
+
+        assertEquals("Lagging", customerRepository.findById(customerId).orElseThrow().getSurname());
+        assertEquals("Replica", transactionTemplate.execute(status ->
+                customerRepository.findById(customerId).orElseThrow().getSurname()));
+    }
+
+    @Test
+    void readsBeforeWrites_GoToPrimary() {
+        Loan loan = loanRepository.save(Loan.builder()
+                .customer(customerRepository.getReferenceById(customerId))
+                .loanAmount(Money.of("100.00"))
+                .numberOfInstallment(6)
+                .interestRate(new BigDecimal("0.10"))
+                .createDate(LocalDateTime.now())
+                .isPaid(false)
+                .build());
+        recordRepository.save(IdempotencyRecord.builder()
+                .id("routing:key")
+                .loanId(loan.getId())
+                .amount(Money.of("10.00"))
+                .response("{}")
+                .createdAt(LocalDateTime.now())
+                .build());
+        LocalDate accrualDate = LocalDate.now().minusYears(10);
+        checkpointRepository.save(PenaltyAccrualCheckpoint.builder()
+                .accrualDate(accrualDate)
+                .lastInstallmentId(0L)
+                .completed(true)
+                .updatedAt(LocalDateTime.now())
+                .build());
+
+        assertEquals(customerId, loanService.findCustomerIdForLoan(loan.getId()));
+        assertTrue(recordRepository.findById("routing:key").isPresent());
+        assertTrue(checkpointRepository.findById(accrualDate).isPresent());
+        assertTrue(loanRepository.findById(loan.getId()).isEmpty());
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
@@ -0,0 +1,110 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.dto.request.InstallmentSearchCriteria;
+import com.bank.loanapi.dto.request.LoanSearchCriteria;
+import com.bank.loanapi.metrics.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the search and schedule queries are planned on the composite indexes rather than on the
+ * single-column foreign key indexes or a table scan. The plans are taken for the SQL Hibernate generates
+ * for each repository call, captured by the statement inspector.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.bank.loanapi.repository.SearchIndexPlanTest$CapturingStatementInspector")
+@ActiveProfiles("test")
+class SearchIndexPlanTest {
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanInstallmentRepository installmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void customerLoanFilters_UseCustomerPaidInstallmentsIndex() {
+        loanRepository.findLoanPage(LoanSearchCriteria.builder()
+                .customerId(1L)
+                .isPaid(false)
+                .numberOfInstallments(6)
+                .build(), 0L, 21);
+
+        String plan = explainLastStatement(" ", 1L, 0L, false, 6, 21);
+
+        assertTrue(plan.contains("IDX_LOANS_CUSTOMER_PAID_INSTALLMENTS"), plan);
+    }
+
+    @Test
+    void overdueLoans_UsePaidNextDueIndex() {
+        loanRepository.findLoanPage(LoanSearchCriteria.builder().overdue(true).build(), 0L, 21);
+
+        String plan = explainLastStatement(" ", 0L, LocalDate.now(), 21);
+
+        assertTrue(plan.contains("IDX_LOANS_PAID_NEXT_DUE"), plan);
+    }
+
+    @Test
+    void unpaidInstallmentsOfLoan_UseLoanPaidDueIndex() {
+        installmentRepository.findInstallmentPage(InstallmentSearchCriteria.builder()
+                .loanId(1L)
+                .isPaid(false)
+                .build(), 0L, 21);
+
+        String plan = explainLastStatement(0L, 1L, false, 21);
+
+        assertTrue(plan.contains("IDX_INSTALLMENTS_LOAN_PAID_DUE"), plan);
+    }
+
+    @Test
+    void overdueInstallments_UsePaidDueIndex() {
+        installmentRepository.findInstallmentPage(InstallmentSearchCriteria.builder().overdue(true).build(), 0L, 21);
+
+        String plan = explainLastStatement(0L, LocalDate.now(), 21);
+
+        assertTrue(plan.contains("IDX_INSTALLMENTS_PAID_DUE"), plan);
+    }
+
+    @Test
+    void loanBookSchedules_ReadAsLoanIdRange() {
+        installmentRepository.findLoanBookInstallments(0L, 500L);
+
+        String plan = explainLastStatement(0L, 500L);
+
+        // H2 only sorts through an index that covers the selected columns, so it sorts the chunk itself
+        assertTrue(plan.contains("LOAN_ID > ?1"), plan);
+        assertFalse(plan.contains("TABLESCAN"), plan);
+    }
+
+    // Binds the statement's parameters in the order they appear in the generated SQL
+    private String explainLastStatement(Object... parameters) {
+        String sql = CapturingStatementInspector.LAST.get();
+        assertNotNull(sql);
+        assertEquals(parameters.length, sql.chars().filter(c -> c == '?').count(), sql);
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters).toString().toUpperCase();
+    }
+
+    /**
+     * Counts like the application's inspector and also keeps the last statement prepared on the thread.
+     */
+    public static class CapturingStatementInspector extends SqlStatementCounter {
+
+        static final ThreadLocal<String> LAST = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            LAST.set(sql);
+            return super.inspect(sql);
+        }
+    }
+}
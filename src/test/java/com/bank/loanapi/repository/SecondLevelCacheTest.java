@@ -0,0 +1,150 @@
+package com.bank.loanapi.repository;
+
+import com.bank.loanapi.entity.Customer;
+import com.bank.loanapi.entity.User;
+import com.bank.loanapi.money.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without a test transaction: a cached entry is only served to sessions that start after it was put, so
+ * every lookup here commits in a session of its own, as requests do.
+ */
+@DataJpaTest(properties = "metrics.hibernate-statistics=true")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private Long userId;
+    private Long customerId;
+    private Long otherCustomerId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User user = userRepository.save(User.builder()
+                .username("cached.customer")
+                .password("secret")
+                .roles(Set.of(User.Role.CUSTOMER))
+                .build());
+        userId = user.getId();
+        customerId = customerRepository.save(customer("John", user)).getId();
+        otherCustomerId = customerRepository.save(customer("Jane", null)).getId();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAllById(Set.of(customerId, otherCustomerId));
+        userRepository.deleteById(userId);
+    }
+
+    private static Customer customer(String name, User user) {
+        return Customer.builder()
+                .name(name)
+                .surname("Doe")
+                .creditLimit(Money.of("10000"))
+                .usedCreditLimit(Money.ZERO)
+                .user(user)
+                .build();
+    }
+
+    @Test
+    void findByUsername_SecondLookup_ReadsUserAndRolesFromCache() {
+        transactionTemplate.execute(status -> userRepository.findByUsername("cached.customer").orElseThrow());
+        long userHits = hits("users");
+        long roleHits = hits("user-roles");
+
+        User user = transactionTemplate.execute(status -> {
+            User found = userRepository.findByUsername("cached.customer").orElseThrow();
+            found.getRoles().size();
+            return found;
+        });
+
+        assertEquals(Set.of(User.Role.CUSTOMER), user.getRoles());
+        assertTrue(hits("users") > userHits);
+        assertTrue(hits("user-roles") > roleHits);
+    }
+
+    @Test
+    void findById_SecondLookup_ReadsCustomerFromCache() {
+        customerRepository.findById(customerId).orElseThrow();
+        long customerHits = hits("customers");
+
+        customerRepository.findById(customerId).orElseThrow();
+
+        assertEquals(customerHits + 1, hits("customers"));
+    }
+
+    @Test
+    void reserveCredit_EvictsOnlyThatCustomer() {
+        customerRepository.findById(customerId).orElseThrow();
+        customerRepository.findById(otherCustomerId).orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status -> customerRepository.reserveCredit(customerId, Money.of("1200")));
+        long customerHits = hits("customers");
+
+        assertEquals(Money.of("1200"), customerRepository.findById(customerId).orElseThrow().getUsedCreditLimit());
+        assertEquals(customerHits, hits("customers"));
+        customerRepository.findById(otherCustomerId).orElseThrow();
+        assertEquals(customerHits + 1, hits("customers"));
+    }
+
+    @Test
+    void reserveCredit_SessionBegunBeforeItCompleted_DoesNotCacheTheCustomer() {
+        EntityManager earlier = entityManagerFactory.createEntityManager();
+        try {
+            earlier.getTransaction().begin();
+            transactionTemplate.executeWithoutResult(status -> customerRepository.reserveCredit(customerId, Money.of("1200")));
+            long customerPuts = puts("customers");
+
+            earlier.find(Customer.class, customerId);
+            earlier.getTransaction().commit();
+
+            assertEquals(customerPuts, puts("customers"));
+        } finally {
+            earlier.close();
+        }
+        assertEquals(Money.of("1200"), customerRepository.findById(customerId).orElseThrow().getUsedCreditLimit());
+    }
+
+    private long puts(String region) {
+        return statistics.getDomainDataRegionStatistics(region).getPutCount();
+    }
+
+    private long hits(String region) {
+        return statistics.getDomainDataRegionStatistics(region).getHitCount();
+    }
+}
@@ -0,0 +1,64 @@
+package com.bank.loanapi.security;
+
+import com.bank.loanapi.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerAccessCheckerTest {
+
+    private final CustomerAccessChecker accessChecker = new CustomerAccessChecker();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void authenticate(CustomUserDetails principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private User user(Long id, User.Role role) {
+        return User.builder()
+                .id(id)
+                .username("user" + id)
+                .roles(Set.of(role))
+                .build();
+    }
+
+    @Test
+    void checkAccess_AsAdmin_Success() {
+        authenticate(new CustomUserDetails(user(2L, User.Role.ADMIN)));
+
+        assertDoesNotThrow(() -> accessChecker.checkAccess(1L));
+    }
+
+    @Test
+    void checkAccess_AsOtherCustomer_ThrowsException() {
+        authenticate(new CustomUserDetails(user(2L, User.Role.CUSTOMER), 2L));
+
+        assertThrows(AccessDeniedException.class, () -> accessChecker.checkAccess(1L));
+    }
+
+    @Test
+    void checkAccess_TokenPrincipal_ComparesCustomerId() {
+        authenticate(new CustomUserDetails(user(1L, User.Role.CUSTOMER), 1L));
+
+        assertDoesNotThrow(() -> accessChecker.checkAccess(1L));
+        assertThrows(AccessDeniedException.class, () -> accessChecker.checkAccess(2L));
+    }
+
+    @Test
+    void checkAccess_UserWithoutCustomer_ThrowsException() {
+        authenticate(new CustomUserDetails(user(1L, User.Role.CUSTOMER)));
+
+        assertThrows(AccessDeniedException.class, () -> accessChecker.checkAccess(1L));
+    }
+}
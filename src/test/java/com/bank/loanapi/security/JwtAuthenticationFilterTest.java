@@ -0,0 +1,83 @@
+package com.bank.loanapi.security;
+
+import com.bank.loanapi.entity.User;
+import com.bank.loanapi.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtTokenProvider tokenProvider;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @InjectMocks
+    private JwtAuthenticationFilter filter;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader("Authorization", "Bearer token");
+        return request;
+    }
+
+    @Test
+    void doFilter_StatelessMode_BuildsPrincipalWithoutLoadingUser() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        Claims claims = new DefaultClaims();
+        User user = User.builder().id(7L).username("john.doe").roles(Set.of(User.Role.CUSTOMER)).build();
+        when(tokenProvider.parseClaims("token")).thenReturn(claims);
+        when(tokenProvider.getPrincipalFromClaims(claims)).thenReturn(new CustomUserDetails(user, 3L));
+
+        filter.doFilter(request("/api/loans"), new MockHttpServletResponse(), new MockFilterChain());
+
+        CustomUserDetails principal =
+                (CustomUserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertEquals(3L, principal.getCustomerId());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void doFilter_DefaultMode_LoadsUserBySubject() throws Exception {
+        Claims claims = new DefaultClaims().setSubject("john.doe");
+        User user = User.builder().id(7L).username("john.doe").roles(Set.of(User.Role.CUSTOMER)).build();
+        when(tokenProvider.parseClaims("token")).thenReturn(claims);
+        when(userDetailsService.loadUserByUsername("john.doe")).thenReturn(new CustomUserDetails(user));
+
+        filter.doFilter(request("/api/loans"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(tokenProvider, never()).getPrincipalFromClaims(any());
+    }
+
+    @Test
+    void doFilter_PublicPath_SkipsTokenProcessing() throws Exception {
+        filter.doFilter(request("/api/auth/login"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(tokenProvider, userDetailsService);
+    }
+}
@@ -0,0 +1,111 @@
+package com.bank.loanapi.security;
+
+import com.bank.loanapi.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET =
+            "testSecretKeyForJWTTokenGenerationMustBeAtLeast512BitsLongForHS512Signing0123456789";
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 3600000);
+        ReflectionTestUtils.setField(tokenProvider, "cacheMaxSize", 100L);
+        tokenProvider.init();
+
+        User user = User.builder()
+                .id(7L)
+                .username("john.doe")
+                .roles(Set.of(User.Role.CUSTOMER))
+                .build();
+        CustomUserDetails principal = new CustomUserDetails(user);
+        token = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Test
+    void parseClaims_ValidToken_ReturnsClaims() {
+        Claims claims = tokenProvider.parseClaims(token);
+
+        assertNotNull(claims);
+        assertEquals("john.doe", claims.getSubject());
+        assertEquals("CUSTOMER", claims.get("roles", String.class));
+        assertEquals(7L, claims.get("userId", Long.class));
+    }
+
+    @Test
+    void parseClaims_RepeatedToken_VerifiedOnceThenServedFromCache() {
+        tokenProvider.parseClaims(token);
+        tokenProvider.parseClaims(token);
+        tokenProvider.parseClaims(token);
+
+        assertEquals(1, tokenProvider.getVerifiedTokenCacheStats().missCount());
+        assertEquals(2, tokenProvider.getVerifiedTokenCacheStats().hitCount());
+    }
+
+    @Test
+    void parseClaims_TamperedToken_ReturnsNullAndIsNotCached() {
+        String tampered = token.substring(0, token.length() - 4) + "AAAA";
+
+        assertNull(tokenProvider.parseClaims(tampered));
+        assertNull(tokenProvider.parseClaims(tampered));
+        assertEquals(0, tokenProvider.getVerifiedTokenCacheStats().hitCount());
+    }
+
+    @Test
+    void parseClaims_ExpiredToken_ReturnsNull() {
+        String expired = Jwts.builder()
+                .setSubject("john.doe")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS512)
+                .compact();
+
+        assertNull(tokenProvider.parseClaims(expired));
+        assertFalse(tokenProvider.validateToken(expired));
+    }
+
+    @Test
+    void getPrincipalFromClaims_RebuildsUserFromToken() {
+        User user = User.builder()
+                .id(7L)
+                .username("john.doe")
+                .roles(Set.of(User.Role.CUSTOMER))
+                .build();
+        CustomUserDetails owner = new CustomUserDetails(user, 3L);
+        String customerToken = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(owner, null, owner.getAuthorities()));
+
+        CustomUserDetails principal = tokenProvider.getPrincipalFromClaims(tokenProvider.parseClaims(customerToken));
+
+        assertEquals("john.doe", principal.getUsername());
+        assertEquals(7L, principal.getUser().getId());
+        assertEquals(3L, principal.getCustomerId());
+        assertEquals(Set.of(User.Role.CUSTOMER), principal.getUser().getRoles());
+        assertTrue(principal.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_CUSTOMER")));
+    }
+
+    @Test
+    void getUsernameFromJWT_UsesSameVerification() {
+        assertTrue(tokenProvider.validateToken(token));
+        assertEquals("john.doe", tokenProvider.getUsernameFromJWT(token));
+        assertEquals(1, tokenProvider.getVerifiedTokenCacheStats().missCount());
+    }
+}
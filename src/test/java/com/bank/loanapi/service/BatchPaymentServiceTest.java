@@ -0,0 +1,104 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.request.BatchPaymentRequest;
+import com.bank.loanapi.dto.request.BatchPaymentRequest.PaymentItem;
+import com.bank.loanapi.dto.response.BatchPaymentResponse;
+import com.bank.loanapi.dto.response.BatchPaymentResponse.ItemResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchPaymentServiceTest {
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private LoanService loanService;
+
+    private CustomerWriteExecutor writeExecutor;
+    private BatchPaymentService batchPaymentService;
+
+    @BeforeEach
+    void setUp() {
+        writeExecutor = new CustomerWriteExecutor();
+        ReflectionTestUtils.setField(writeExecutor, "capacity", 4);
+        batchPaymentService = new BatchPaymentService(paymentService, loanService, writeExecutor);
+        ReflectionTestUtils.setField(batchPaymentService, "chunkSize", 2);
+        ReflectionTestUtils.setField(batchPaymentService, "parallelism", 1);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeExecutor.destroy();
+    }
+
+    @Test
+    void payLoans_PaysChunksAcrossCustomers_AndKeepsBatchOrder() {
+        when(loanService.findCustomerIdsForLoans(List.of(10L, 20L, 11L, 99L)))
+                .thenReturn(Map.of(10L, 1L, 11L, 1L, 20L, 2L));
+        when(paymentService.payLoans(any(BatchPaymentRequest.class)))
+                .thenAnswer(invocation -> succeed(invocation.getArgument(0)));
+
+        BatchPaymentResponse response = batchPaymentService.payLoans(request(10L, 20L, 11L, 99L));
+
+        verify(paymentService).payLoans(request(10L, 20L));
+        verify(paymentService).payLoans(request(11L));
+        assertEquals(3, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertEquals(List.of(0, 1, 2, 3), response.getResults().stream().map(ItemResult::getIndex).toList());
+        assertEquals(List.of(10L, 20L, 11L, 99L), response.getResults().stream().map(ItemResult::getLoanId).toList());
+        assertEquals("Loan not found", response.getResults().get(3).getError());
+    }
+
+    @Test
+    void payLoans_OneChunkFails_OtherChunksStillPaid() {
+        when(loanService.findCustomerIdsForLoans(List.of(10L, 20L, 30L)))
+                .thenReturn(Map.of(10L, 1L, 20L, 2L, 30L, 3L));
+        when(paymentService.payLoans(request(10L, 20L))).thenAnswer(invocation -> succeed(invocation.getArgument(0)));
+        when(paymentService.payLoans(request(30L))).thenThrow(new OptimisticLockingFailureException("Conflict"));
+
+        BatchPaymentResponse response = batchPaymentService.payLoans(request(10L, 20L, 30L));
+
+        assertEquals(2, response.getSucceeded());
+        assertEquals(List.of("SUCCESS", "SUCCESS", "FAILED"),
+                response.getResults().stream().map(ItemResult::getStatus).toList());
+        assertEquals("Conflict", response.getResults().get(2).getError());
+    }
+
+    private static BatchPaymentRequest request(Long... loanIds) {
+        return new BatchPaymentRequest(List.of(loanIds).stream()
+                .map(loanId -> new PaymentItem(loanId, new BigDecimal("100")))
+                .toList());
+    }
+
+    // Numbers the results within the chunk, as PaymentService.payLoans does
+    private static BatchPaymentResponse succeed(BatchPaymentRequest request) {
+        List<PaymentItem> payments = request.getPayments();
+        return BatchPaymentResponse.builder()
+                .succeeded(payments.size())
+                .failed(0)
+                .results(payments.stream()
+                        .map(payment -> ItemResult.builder()
+                                .index(payments.indexOf(payment))
+                                .loanId(payment.getLoanId())
+                                .status("SUCCESS")
+                                .build())
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.response.BulkImportResponse;
+import com.bank.loanapi.entity.Customer;
+import com.bank.loanapi.money.Money;
+import com.bank.loanapi.repository.CustomerRepository;
+import com.bank.loanapi.repository.LoanRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "bulk-import.chunk-size=2")
+@ActiveProfiles("test")
+class BulkImportServiceTest {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Test
+    void importNdjson_MixedFile_WritesValidLinesAndReportsRejectedOnes() throws Exception {
+        Customer existing = customerRepository.save(Customer.builder()
+                .name("Existing")
+                .surname("Importer")
+                .creditLimit(Money.of("2000.00"))
+                .usedCreditLimit(Money.ZERO)
+                .build());
+        long loansBefore = loanRepository.count();
+
+        String ndjson = String.join("\n",
+                "{\"name\":\"Ada\",\"surname\":\"Import\",\"creditLimit\":5000,"
+                        + "\"loans\":[{\"amount\":1000,\"interestRate\":0.2,\"numberOfInstallments\":6},"
+                        + "{\"amount\":2000,\"interestRate\":0.1,\"numberOfInstallments\":12}]}",
+                "{\"customerId\":" + existing.getId() + ",\"loans\":[{\"amount\":1000,\"interestRate\":0.2,\"numberOfInstallments\":6}]}",
+                "",
+                "not json",
+                "{\"name\":\"Bob\",\"surname\":\"Import\",\"creditLimit\":100,"
+                        + "\"loans\":[{\"amount\":1000,\"interestRate\":0.2,\"numberOfInstallments\":6}]}",
+                "{\"name\":\"Cy\",\"surname\":\"Import\",\"creditLimit\":5000,"
+                        + "\"loans\":[{\"amount\":1000,\"interestRate\":0.2,\"numberOfInstallments\":7}]}",
+                "{\"customerId\":" + existing.getId() + ",\"loans\":[{\"amount\":1000,\"interestRate\":0.2,\"numberOfInstallments\":6}]}",
+                "{\"customerId\":999999,\"loans\":[{\"amount\":10,\"interestRate\":0.2,\"numberOfInstallments\":6}]}",
+                "{\"name\":\"Dee\",\"surname\":\"Import\",\"creditLimit\":0}");
+
+        BulkImportResponse response = bulkImportService.importNdjson(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(9, response.getLinesRead());
+        assertEquals(2, response.getCustomersCreated());
+        assertEquals(3, response.getLoansCreated());
+        assertEquals(5, response.getRejected());
+        assertEquals(List.of(4L, 5L, 6L, 7L, 8L), response.getRejectedLines().stream()
+                .map(BulkImportResponse.RejectedLine::getLineNumber)
+                .sorted()
+                .toList());
+
+        assertEquals(loansBefore + 3, loanRepository.count());
+        Customer reloaded = customerRepository.findById(existing.getId()).orElseThrow();
+        assertEquals(Money.of("1200.00"), reloaded.getUsedCreditLimit());
+
+        Customer ada = customerRepository.findAll().stream()
+                .filter(customer -> "Ada".equals(customer.getName()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(Money.of("3400.00"), ada.getUsedCreditLimit());
+        assertEquals(2, loanRepository.findLoanResponses(ada.getId(), null, null).size());
+    }
+
+    @Test
+    void importNdjson_NullAndOutOfRangeLines_AreRejectedWithoutAbortingTheStream() throws Exception {
+        String ndjson = String.join("\n",
+                "null",
+                "{\"name\":\"Huge\",\"surname\":\"Import\",\"creditLimit\":1e20,"
+                        + "\"loans\":[{\"amount\":1e20,\"interestRate\":0.2,\"numberOfInstallments\":6}]}",
+                "{\"name\":\"Eve\",\"surname\":\"Import\",\"creditLimit\":5000,"
+                        + "\"loans\":[{\"amount\":1000,\"interestRate\":0.2,\"numberOfInstallments\":6}]}");
+
+        BulkImportResponse response = bulkImportService.importNdjson(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, response.getLinesRead());
+        assertEquals(1, response.getCustomersCreated());
+        assertEquals(1, response.getLoansCreated());
+        assertEquals(List.of(1L, 2L), response.getRejectedLines().stream()
+                .map(BulkImportResponse.RejectedLine::getLineNumber)
+                .sorted()
+                .toList());
+    }
+}
@@ -0,0 +1,114 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.request.CreateLoanRequest;
+import com.bank.loanapi.entity.Customer;
+import com.bank.loanapi.entity.User;
+import com.bank.loanapi.exception.InsufficientCreditException;
+import com.bank.loanapi.money.Money;
+import com.bank.loanapi.repository.CustomerRepository;
+import com.bank.loanapi.repository.LoanRepository;
+import com.bank.loanapi.security.CustomUserDetails;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many writers race to open loans against one customer whose limit only covers half of the attempts.
+ * Exactly that half must succeed and the used credit must match the loans actually persisted.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class CreditReservationStressTest {
+
+    private static final int ATTEMPTS = 256;
+    private static final int AFFORDABLE_LOANS = ATTEMPTS / 2;
+    private static final Money LOAN_TOTAL = Money.of("1200.00");
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @ParameterizedTest(name = "{0} concurrent writers")
+    @ValueSource(ints = {1, 8, 64})
+    void createLoan_ConcurrentWriters_NeverExceedCreditLimit(int writers) throws Exception {
+        Customer customer = customerRepository.save(Customer.builder()
+                .name("Stress")
+                .surname("Writers" + writers)
+                .creditLimit(LOAN_TOTAL.multiply(AFFORDABLE_LOANS))
+                .usedCreditLimit(Money.ZERO)
+                .build());
+
+        CreateLoanRequest request = CreateLoanRequest.builder()
+                .customerId(customer.getId())
+                .amount(new BigDecimal("1000"))
+                .interestRate(new BigDecimal("0.2"))
+                .numberOfInstallments(6)
+                .build();
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            futures.add(executor.submit(() -> {
+                authenticateAsAdmin();
+                start.await();
+                for (int i = 0; i < ATTEMPTS / writers; i++) {
+                    try {
+                        loanService.createLoan(request);
+                        created.incrementAndGet();
+                    } catch (InsufficientCreditException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        Customer reloaded = customerRepository.findById(customer.getId()).orElseThrow();
+        long persistedLoans = loanRepository.findLoanResponses(customer.getId(), null, null).size();
+
+        assertEquals(AFFORDABLE_LOANS, created.get());
+        assertEquals(ATTEMPTS - AFFORDABLE_LOANS, rejected.get());
+        assertEquals(AFFORDABLE_LOANS, persistedLoans);
+        assertEquals(LOAN_TOTAL.multiply(persistedLoans), reloaded.getUsedCreditLimit());
+        assertTrue(reloaded.getUsedCreditLimit().compareTo(reloaded.getCreditLimit()) <= 0);
+    }
+
+    private void authenticateAsAdmin() {
+        User admin = User.builder()
+                .id(0L)
+                .username("stress.admin")
+                .roles(Set.of(User.Role.ADMIN))
+                .build();
+        CustomUserDetails principal = new CustomUserDetails(admin);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,164 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.exception.InsufficientCreditException;
+import com.bank.loanapi.exception.WriteQueueFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerWriteExecutorTest {
+
+    private CustomerWriteExecutor writeExecutor;
+
+    @BeforeEach
+    void setUp() {
+        writeExecutor = new CustomerWriteExecutor();
+        ReflectionTestUtils.setField(writeExecutor, "capacity", 4);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeExecutor.destroy();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void submit_SameCustomer_RunsWritesOneAtATimeInOrder() {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            int write = i;
+            results.add(writeExecutor.submit(1L, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(5);
+                order.add(write);
+                running.decrementAndGet();
+                return write;
+            }));
+        }
+
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+        assertEquals(List.of(0, 1, 2, 3), order);
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    void submit_DifferentCustomers_RunInParallel() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        CompletableFuture<Boolean> first = writeExecutor.submit(1L, () -> awaitLatch(bothStarted));
+        CompletableFuture<Boolean> second = writeExecutor.submit(2L, () -> awaitLatch(bothStarted));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_MailboxFull_RejectsWithBackPressure() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        writeExecutor.submit(1L, () -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++) {
+            writeExecutor.submit(1L, () -> true);
+        }
+
+        assertThrows(WriteQueueFullException.class, () -> writeExecutor.submit(1L, () -> true));
+        assertDoesNotThrow(() -> writeExecutor.submit(2L, () -> true).join());
+        release.countDown();
+    }
+
+    @Test
+    void submitAll_WaitsForEveryCustomer_AndHoldsTheirLaterWrites() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        writeExecutor.submit(2L, () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return order.add("customer 2");
+        });
+
+        CompletableFuture<Boolean> both = writeExecutor.submitAll(List.of(1L, 2L), () -> order.add("both"));
+        CompletableFuture<Boolean> after = writeExecutor.submit(1L, () -> order.add("customer 1"));
+
+        sleep(50);
+        assertFalse(both.isDone());
+        assertFalse(after.isDone());
+        release.countDown();
+
+        CompletableFuture.allOf(both, after).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("customer 2", "both", "customer 1"), order);
+    }
+
+    @Test
+    void submitAll_OverlappingWrites_QueuedInOppositeOrder_DoNotDeadlock() throws Exception {
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int write = i;
+            List<Long> customers = i % 2 == 0 ? List.of(1L, 2L, 3L) : List.of(3L, 2L, 1L);
+            results.add(writeExecutor.submitAll(customers, () -> write));
+        }
+
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void execute_RethrowsWriteFailureAndPropagatesSecurityContext() {
+        Authentication caller = new TestingAuthenticationToken("john.doe", null, "ROLE_CUSTOMER");
+        SecurityContextHolder.getContext().setAuthentication(caller);
+
+        Authentication seen = writeExecutor.execute(1L,
+                () -> SecurityContextHolder.getContext().getAuthentication());
+
+        assertSame(caller, seen);
+        assertThrows(InsufficientCreditException.class, () -> writeExecutor.execute(1L, () -> {
+            throw new InsufficientCreditException("Insufficient credit limit");
+        }));
+    }
+
+    private static boolean awaitLatch(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
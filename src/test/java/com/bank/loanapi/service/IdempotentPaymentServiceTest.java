@@ -0,0 +1,192 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.request.CreateLoanRequest;
+import com.bank.loanapi.dto.request.PayLoanRequest;
+import com.bank.loanapi.dto.response.PaymentResultResponse;
+import com.bank.loanapi.entity.Customer;
+import com.bank.loanapi.entity.IdempotencyRecord;
+import com.bank.loanapi.entity.User;
+import com.bank.loanapi.exception.IdempotencyKeyReuseException;
+import com.bank.loanapi.money.Money;
+import com.bank.loanapi.repository.CustomerRepository;
+import com.bank.loanapi.repository.IdempotencyRecordRepository;
+import com.bank.loanapi.repository.LoanRepository;
+import com.bank.loanapi.security.CustomUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class IdempotentPaymentServiceTest {
+
+    private static final PayLoanRequest ONE_INSTALLMENT = PayLoanRequest.builder()
+            .amount(new BigDecimal("200"))
+            .build();
+
+    @Autowired
+    private IdempotentPaymentService idempotentPaymentService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    private Long customerId;
+    private Long loanId;
+
+    @BeforeEach
+    void setUp() {
+        authenticateAsAdmin();
+        customerId = customerRepository.save(Customer.builder()
+                .name("Idempotent")
+                .surname("Payer")
+                .creditLimit(Money.of("100000"))
+                .usedCreditLimit(Money.ZERO)
+                .build()).getId();
+        loanId = loanService.createLoan(CreateLoanRequest.builder()
+                .customerId(customerId)
+                .amount(new BigDecimal("1000"))
+                .interestRate(new BigDecimal("0.2"))
+                .numberOfInstallments(6)
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void payLoan_RepeatedKey_ReturnsFirstResponseWithoutPayingAgain() {
+        String key = UUID.randomUUID().toString();
+
+        PaymentResultResponse first = idempotentPaymentService.payLoan(key, loanId, ONE_INSTALLMENT);
+        PaymentResultResponse second = idempotentPaymentService.payLoan(key, loanId, ONE_INSTALLMENT);
+
+        assertEquals(1, first.getInstallmentsPaid());
+        assertEquals(first, second);
+        assertEquals(1, paidInstallments());
+        assertTrue(recordRepository.existsById("idempotency.admin:" + key));
+    }
+
+    @Test
+    void payLoan_KeyReusedForDifferentAmount_Rejected() {
+        String key = UUID.randomUUID().toString();
+        idempotentPaymentService.payLoan(key, loanId, ONE_INSTALLMENT);
+
+        PayLoanRequest different = PayLoanRequest.builder().amount(new BigDecimal("400")).build();
+
+        assertThrows(IdempotencyKeyReuseException.class,
+                () -> idempotentPaymentService.payLoan(key, loanId, different));
+        assertEquals(1, paidInstallments());
+    }
+
+    @Test
+    void payLoan_StoredRecord_MatchesAmountAsRounded() {
+        String key = UUID.randomUUID().toString();
+        recordRepository.save(record("idempotency.admin:" + key, LocalDateTime.now()));
+
+        PayLoanRequest unrounded = PayLoanRequest.builder().amount(new BigDecimal("199.995")).build();
+
+        assertNotNull(idempotentPaymentService.payLoan(key, loanId, unrounded));
+        assertEquals(0, paidInstallments());
+    }
+
+    @Test
+    void payLoan_KeyOfExpiredRecordNotYetCleanedUp_PaysAgainAndReplacesRecord() {
+        String key = UUID.randomUUID().toString();
+        recordRepository.save(record("idempotency.admin:" + key, LocalDateTime.now().minusDays(2)));
+
+        PaymentResultResponse response = idempotentPaymentService.payLoan(key, loanId, ONE_INSTALLMENT);
+
+        assertEquals(1, response.getInstallmentsPaid());
+        assertEquals(1, paidInstallments());
+        assertTrue(recordRepository.findById("idempotency.admin:" + key).orElseThrow()
+                .getCreatedAt().isAfter(LocalDateTime.now().minusHours(1)));
+    }
+
+    @Test
+    void payLoan_ConcurrentDuplicates_PayOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        int duplicates = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+        List<Future<PaymentResultResponse>> futures = new ArrayList<>();
+
+        for (int i = 0; i < duplicates; i++) {
+            futures.add(executor.submit(() -> {
+                authenticateAsAdmin();
+                start.await();
+                return idempotentPaymentService.payLoan(key, loanId, ONE_INSTALLMENT);
+            }));
+        }
+        start.countDown();
+
+        PaymentResultResponse expected = futures.get(0).get(30, TimeUnit.SECONDS);
+        for (Future<PaymentResultResponse> future : futures) {
+            assertEquals(expected, future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(1, paidInstallments());
+    }
+
+    @Test
+    void removeExpiredRecords_DeletesOnlyRecordsPastTtl() {
+        recordRepository.save(record("expired", LocalDateTime.now().minusDays(2)));
+        recordRepository.save(record("fresh", LocalDateTime.now()));
+
+        idempotentPaymentService.removeExpiredRecords();
+
+        assertFalse(recordRepository.existsById("expired"));
+        assertTrue(recordRepository.existsById("fresh"));
+    }
+
+    private IdempotencyRecord record(String key, LocalDateTime createdAt) {
+        return IdempotencyRecord.builder()
+                .id(key)
+                .loanId(loanId)
+                .amount(Money.of("200.00"))
+                .response("{}")
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private int paidInstallments() {
+        return loanRepository.findLoanResponses(customerId, null, null).get(0).getPaidInstallments();
+    }
+
+    private void authenticateAsAdmin() {
+        User admin = User.builder()
+                .id(0L)
+                .username("idempotency.admin")
+                .roles(Set.of(User.Role.ADMIN))
+                .build();
+        CustomUserDetails principal = new CustomUserDetails(admin);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,63 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.entity.Customer;
+import com.bank.loanapi.entity.Loan;
+import com.bank.loanapi.money.Money;
+import com.bank.loanapi.repository.CustomerRepository;
+import com.bank.loanapi.repository.LoanRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"loan-aggregates.chunk-size=2", "loan-aggregates.reconcile-cron=-"})
+@ActiveProfiles("test")
+class LoanAggregateReconciliationServiceTest {
+
+    @Autowired
+    private LoanAggregateReconciliationService reconciliationService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reconcile_RewritesOnlyLoansThatDoNotMatchTheirInstallments() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .name("Drift")
+                .surname("Check")
+                .creditLimit(Money.of("10000.00"))
+                .usedCreditLimit(Money.of("2400.00"))
+                .build());
+        Loan intact = loanRepository.save(LoanService.newLoan(customer, Money.of("1000.00"),
+                new BigDecimal("0.20"), 6, Money.of("1200.00")));
+        Loan drifted = loanRepository.save(LoanService.newLoan(customer, Money.of("1000.00"),
+                new BigDecimal("0.20"), 6, Money.of("1200.00")));
+        reconciliationService.reconcile();
+
+        jdbcTemplate.update("UPDATE loans SET paid_installment_count = 4, remaining_amount = 1.00, next_due_date = NULL "
+                + "WHERE id = ?", drifted.getId());
+
+        assertEquals(1, reconciliationService.reconcile());
+
+        Loan repaired = loanRepository.findById(drifted.getId()).orElseThrow();
+        assertEquals(0, repaired.getPaidInstallmentCount());
+        assertEquals(Money.of("1200.00"), repaired.getRemainingAmount());
+        assertEquals(drifted.getNextDueDate(), repaired.getNextDueDate());
+        assertEquals(Money.ZERO, repaired.getPenaltiesPaid());
+        assertEquals(intact.getVersion(), loanRepository.findById(intact.getId()).orElseThrow().getVersion());
+
+        assertEquals(0, reconciliationService.reconcile());
+    }
+}
@@ -0,0 +1,134 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.response.PaymentResultResponse;
+import com.bank.loanapi.entity.Loan;
+import com.bank.loanapi.entity.LoanInstallment;
+import com.bank.loanapi.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanCalculatorTest {
+
+    private static final int[] INSTALLMENT_COUNTS = {6, 9, 12, 24};
+
+    private final Random random = new Random(20261017L);
+
+    @Test
+    void totalAndInstallmentAmount_MatchBigDecimalFormulas() {
+        for (int i = 0; i < 100_000; i++) {
+            Money amount = randomAmount();
+            BigDecimal rate = i % 4 == 0
+                    ? BigDecimal.valueOf(1000 + random.nextInt(4001), 4)
+                    : BigDecimal.valueOf(10 + random.nextInt(41), 2);
+            int numberOfInstallments = INSTALLMENT_COUNTS[random.nextInt(INSTALLMENT_COUNTS.length)];
+
+            BigDecimal expectedTotal = amount.toBigDecimal().multiply(BigDecimal.ONE.add(rate))
+                    .setScale(2, RoundingMode.HALF_UP);
+            Money total = LoanCalculator.totalAmount(amount, rate);
+            assertEquals(expectedTotal, total.toBigDecimal(), () -> amount + " at " + rate);
+
+            BigDecimal expectedInstallment = expectedTotal
+                    .divide(new BigDecimal(numberOfInstallments), 2, RoundingMode.HALF_UP);
+            assertEquals(expectedInstallment,
+                    LoanCalculator.installmentAmount(total, numberOfInstallments).toBigDecimal());
+        }
+    }
+
+    @Test
+    void requiredAmount_MatchesBigDecimalFormula() {
+        for (int i = 0; i < 100_000; i++) {
+            Money amount = randomAmount();
+            long days = random.nextInt(801) - 400;
+
+            assertEquals(referenceRequiredAmount(amount.toBigDecimal(), days),
+                    LoanCalculator.requiredAmount(amount, days).toBigDecimal(),
+                    () -> amount + " with " + days + " days to due date");
+        }
+    }
+
+    @Test
+    void allocate_SkipsInstallmentsTheRemainderCannotCover() {
+        LocalDate today = LocalDate.of(2026, 3, 15);
+        Loan loan = Loan.builder().numberOfInstallment(4).installments(new ArrayList<>()).build();
+        List<LoanInstallment> installments = loan.getInstallments();
+        for (int i = 0; i < 4; i++) {
+            installments.add(LoanInstallment.builder()
+                    .amount(Money.of("250.00"))
+                    .paidAmount(Money.ZERO)
+                    .dueDate(LocalDate.of(2026, 2, 1).plusMonths(i))
+                    .isPaid(false)
+                    .build());
+        }
+        LoanCalculator.summarize(loan);
+
+        // Late 260.50 and 253.50, then early 245.75 which the rest cannot cover, then early 238.25 which it can
+        LoanCalculator.Allocation allocation = LoanCalculator.allocate(installments, Money.of("755.00"), today);
+
+        assertEquals(List.of(installments.get(0), installments.get(1), installments.get(3)), allocation.installments());
+        assertEquals(List.of(Money.of("260.50"), Money.of("253.50"), Money.of("238.25")),
+                allocation.requiredAmounts());
+        assertTrue(installments.stream().noneMatch(LoanInstallment::getIsPaid));
+
+        PaymentResultResponse result = LoanCalculator.paymentResult(loan, allocation);
+        assertEquals(Money.of("250.00"), result.getRemainingLoanAmount());
+        assertFalse(result.getIsLoanFullyPaid());
+
+        allocation.apply(loan);
+        assertEquals(Money.of("238.25"), installments.get(3).getPaidAmount());
+        assertEquals(today, installments.get(3).getPaymentDate());
+        assertFalse(installments.get(2).getIsPaid());
+
+        assertEquals(3, loan.getPaidInstallmentCount());
+        assertEquals(Money.of("250.00"), loan.getRemainingAmount());
+        assertEquals(LocalDate.of(2026, 4, 1), loan.getNextDueDate());
+        assertEquals(Money.of("14.00"), loan.getPenaltiesPaid());
+    }
+
+    @Test
+    void paymentResult_CoveringEveryUnpaidRow_PaysLoanWhateverItsDeclaredCount() {
+        LocalDate today = LocalDate.of(2026, 3, 15);
+        Loan loan = Loan.builder().numberOfInstallment(24).installments(new ArrayList<>()).build();
+        List<LoanInstallment> installments = loan.getInstallments();
+        for (int i = 0; i < 3; i++) {
+            installments.add(LoanInstallment.builder()
+                    .amount(Money.of("100.00"))
+                    .paidAmount(i == 0 ? Money.of("100.00") : Money.ZERO)
+                    .paymentDate(i == 0 ? today : null)
+                    .dueDate(LocalDate.of(2026, 3, 1).plusMonths(i))
+                    .isPaid(i == 0)
+                    .build());
+        }
+        LoanCalculator.summarize(loan);
+
+        LoanCalculator.Allocation allocation = LoanCalculator.allocate(
+                installments.subList(1, 3), Money.of("500.00"), today);
+
+        PaymentResultResponse result = LoanCalculator.paymentResult(loan, allocation);
+        assertEquals(2, result.getInstallmentsPaid());
+        assertTrue(result.getIsLoanFullyPaid());
+        assertEquals(Money.ZERO, result.getRemainingLoanAmount());
+    }
+
+    private Money randomAmount() {
+        return Money.ofCents(1 + (long) (random.nextDouble() * 100_000_000_00L));
+    }
+
+    private static BigDecimal referenceRequiredAmount(BigDecimal amount, long days) {
+        if (days > 0) {
+            return amount.subtract(amount.multiply(new BigDecimal("0.001")).multiply(new BigDecimal(days))
+                    .setScale(2, RoundingMode.HALF_UP));
+        } else if (days < 0) {
+            return amount.add(amount.multiply(new BigDecimal("0.001")).multiply(new BigDecimal(-days))
+                    .setScale(2, RoundingMode.HALF_UP));
+        }
+        return amount;
+    }
+}
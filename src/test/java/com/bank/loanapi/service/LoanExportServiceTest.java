@@ -0,0 +1,116 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.response.LoanBookEntry;
+import com.bank.loanapi.entity.Customer;
+import com.bank.loanapi.entity.Loan;
+import com.bank.loanapi.exception.InvalidLoanParametersException;
+import com.bank.loanapi.money.Money;
+import com.bank.loanapi.repository.CustomerRepository;
+import com.bank.loanapi.repository.LoanRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// One loan per chunk, so every loan starts a chunk of its own
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "loan-export.chunk-size=1")
+@ActiveProfiles("test")
+class LoanExportServiceTest {
+
+    @Autowired
+    private LoanExportService loanExportService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Loan sixMonthLoan;
+    private Loan twelveMonthLoan;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .name("Export")
+                .surname("Customer")
+                .creditLimit(Money.of("100000"))
+                .usedCreditLimit(Money.ZERO)
+                .build());
+        sixMonthLoan = loanRepository.save(newLoan(customer, 6));
+        twelveMonthLoan = loanRepository.save(newLoan(customer, 12));
+    }
+
+    @Test
+    void export_Csv_WritesOneNumberedRowPerInstallment() throws Exception {
+        List<String> lines = export(LoanExportService.Format.CSV);
+
+        assertEquals(LoanExportService.CSV_HEADER, lines.get(0));
+        List<String[]> rows = lines.stream()
+                .skip(1)
+                .map(line -> line.split(",", -1))
+                .filter(cells -> cells[0].equals(twelveMonthLoan.getId().toString()))
+                .toList();
+        assertEquals(12, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            String[] cells = rows.get(i);
+            assertEquals(20, cells.length);
+            assertEquals(String.valueOf(i + 1), cells[12]);
+            assertEquals("100.00", cells[13]);
+            assertEquals("", cells[16]);
+        }
+    }
+
+    @Test
+    void export_Ndjson_WritesOneLoanPerLineWithItsSchedule() throws Exception {
+        List<LoanBookEntry> entries = export(LoanExportService.Format.NDJSON).stream()
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, LoanBookEntry.class);
+                    } catch (Exception ex) {
+                        throw new AssertionError(line, ex);
+                    }
+                })
+                .filter(entry -> entry.getId().equals(sixMonthLoan.getId()) || entry.getId().equals(twelveMonthLoan.getId()))
+                .toList();
+
+        assertEquals(2, entries.size());
+        LoanBookEntry sixMonth = entries.get(0);
+        assertEquals(sixMonthLoan.getId(), sixMonth.getId());
+        assertEquals(6, sixMonth.getInstallments().size());
+        assertEquals(6, sixMonth.getInstallments().get(5).getInstallmentNumber());
+        assertEquals(Money.of("200.00"), sixMonth.getInstallments().get(0).getAmount());
+        assertEquals(12, entries.get(1).getInstallments().size());
+    }
+
+    @Test
+    void formatOf_UnknownFormat_Rejected() {
+        assertEquals(LoanExportService.Format.CSV, LoanExportService.Format.of("csv"));
+        assertThrows(InvalidLoanParametersException.class, () -> LoanExportService.Format.of("xlsx"));
+    }
+
+    private List<String> export(LoanExportService.Format format) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long rows = loanExportService.export(format, output);
+        assertTrue(rows >= 18);
+        return output.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    // 1200 total (1000 at 20%), split evenly over the schedule
+    private static Loan newLoan(Customer customer, int numberOfInstallments) {
+        return LoanService.newLoan(customer, Money.of("1000"), new BigDecimal("0.2"), numberOfInstallments,
+                Money.of("1200"));
+    }
+}
@@ -0,0 +1,141 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.dto.request.PayLoanRequest;
+import com.bank.loanapi.dto.response.LoanQuoteResponse;
+import com.bank.loanapi.dto.response.PaymentQuoteResponse;
+import com.bank.loanapi.dto.response.PaymentResultResponse;
+import com.bank.loanapi.entity.*;
+import com.bank.loanapi.exception.InvalidLoanParametersException;
+import com.bank.loanapi.metrics.LoanMetrics;
+import com.bank.loanapi.money.Money;
+import com.bank.loanapi.repository.*;
+import com.bank.loanapi.security.CustomerAccessChecker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanQuoteServiceTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private CustomerAccessChecker accessChecker;
+
+    @InjectMocks
+    private LoanQuoteService loanQuoteService;
+
+    @Test
+    void quoteLoan_ReturnsTheScheduleCreateLoanWouldPersist() {
+        BigDecimal amount = new BigDecimal("1000.01");
+        BigDecimal rate = new BigDecimal("0.15");
+
+        LoanQuoteResponse quote = loanQuoteService.quoteLoan(amount, rate, 9);
+
+        Money totalAmount = LoanService.totalAmount(Money.of(amount), rate);
+        Loan loan = LoanService.newLoan(null, Money.of(amount), rate, 9, totalAmount);
+        assertEquals(Money.of("1150.01"), quote.getTotalAmount());
+        assertEquals(9, quote.getInstallments().size());
+        for (int i = 0; i < 9; i++) {
+            assertEquals(i + 1, quote.getInstallments().get(i).getInstallmentNumber());
+            assertEquals(loan.getInstallments().get(i).getDueDate(), quote.getInstallments().get(i).getDueDate());
+            assertEquals(loan.getInstallments().get(i).getAmount(), quote.getInstallments().get(i).getAmount());
+        }
+        verifyNoInteractions(loanRepository);
+    }
+
+    @Test
+    void quoteLoan_InvalidTerms() {
+        assertThrows(InvalidLoanParametersException.class,
+                () -> loanQuoteService.quoteLoan(new BigDecimal("1000"), new BigDecimal("0.2"), 7));
+        assertThrows(InvalidLoanParametersException.class,
+                () -> loanQuoteService.quoteLoan(BigDecimal.ZERO, new BigDecimal("0.2"), 6));
+    }
+
+    @Test
+    void quotePayment_MatchesPayLoanWithoutChangingTheLoan() {
+        LocalDate today = LocalDate.now();
+        Loan quoted = loanWithInstallments(today);
+        Loan paid = loanWithInstallments(today);
+        when(loanRepository.findByIdWithInstallments(1L)).thenReturn(Optional.of(quoted));
+
+        PaymentQuoteResponse quote = loanQuoteService.quotePayment(1L, new BigDecimal("500"));
+
+        LoanRepository paymentLoans = mock(LoanRepository.class);
+        PaymentService paymentService = new PaymentService(paymentLoans, mock(CustomerRepository.class),
+                accessChecker, mock(LoanMetrics.class));
+        when(paymentLoans.findByIdWithInstallments(1L)).thenReturn(Optional.of(paid));
+        PaymentResultResponse payment = paymentService.payLoan(1L, new PayLoanRequest(new BigDecimal("500")));
+
+        assertEquals(payment, quote.getPayment());
+        assertEquals(2, quote.getPayment().getInstallmentsPaid());
+        assertTrue(quoted.getInstallments().stream().skip(1).noneMatch(LoanInstallment::getIsPaid));
+        assertNull(quoted.getInstallments().get(1).getPaymentDate());
+        verify(loanRepository, never()).save(any());
+
+        // 190.00 plus 10 days of late penalty
+        assertEquals(Money.of("191.90"), quote.getPayment().getPaidInstallments().get(0).getPaidAmount());
+        assertEquals(quoted.getInstallments().stream()
+                        .filter(installment -> !installment.getIsPaid())
+                        .map(installment -> paymentService.calculateRequiredAmount(installment, today))
+                        .reduce(Money.ZERO, Money::plus),
+                quote.getPayoffAmount());
+    }
+
+    @Test
+    void quotePayment_PaidLoan() {
+        Loan loan = loanWithInstallments(LocalDate.now());
+        loan.setIsPaid(true);
+        when(loanRepository.findByIdWithInstallments(1L)).thenReturn(Optional.of(loan));
+
+        assertThrows(IllegalStateException.class, () -> loanQuoteService.quotePayment(1L, new BigDecimal("100")));
+    }
+
+    // One paid installment, one 10 days overdue, then four due on the 1st of the following months
+    private static Loan loanWithInstallments(LocalDate today) {
+        Customer customer = Customer.builder().id(1L).name("John").surname("Doe").build();
+        Loan loan = Loan.builder()
+                .id(1L)
+                .customer(customer)
+                .loanAmount(Money.of("1000.00"))
+                .numberOfInstallment(6)
+                .interestRate(new BigDecimal("0.20"))
+                .createDate(LocalDateTime.now())
+                .isPaid(false)
+                .installments(new ArrayList<>())
+                .build();
+
+        LocalDate firstOfNextMonth = today.plusMonths(1).withDayOfMonth(1);
+        loan.getInstallments().add(installment(loan, 1, "200.00", today.minusDays(40), true));
+        loan.getInstallments().add(installment(loan, 2, "190.00", today.minusDays(10), false));
+        for (int i = 0; i < 4; i++) {
+            loan.getInstallments().add(installment(loan, 3 + i, "200.00", firstOfNextMonth.plusMonths(i), false));
+        }
+        LoanCalculator.summarize(loan);
+        return loan;
+    }
+
+    private static LoanInstallment installment(Loan loan, long id, String amount, LocalDate dueDate, boolean paid) {
+        return LoanInstallment.builder()
+                .id(id)
+                .loan(loan)
+                .amount(Money.of(amount))
+                .paidAmount(paid ? Money.of(amount) : Money.ZERO)
+                .dueDate(dueDate)
+                .isPaid(paid)
+                .build();
+    }
+}
@@ -1,11 +1,17 @@
 package com.bank.loanapi.service;
 
 import com.bank.loanapi.dto.request.CreateLoanRequest;
+import com.bank.loanapi.dto.request.LoanSearchCriteria;
+import com.bank.loanapi.dto.response.InstallmentResponse;
+import com.bank.loanapi.dto.response.LoanPageResponse;
 import com.bank.loanapi.dto.response.LoanResponse;
 import com.bank.loanapi.entity.*;
 import com.bank.loanapi.exception.*;
+import com.bank.loanapi.metrics.LoanMetrics;
+import com.bank.loanapi.money.Money;
 import com.bank.loanapi.repository.*;
-import com.bank.loanapi.security.CustomUserDetails;
+import com.bank.loanapi.security.CustomerAccessChecker;
+import com.bank.loanapi.util.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,16 +19,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,13 +39,10 @@ class LoanServiceTest {
     private CustomerRepository customerRepository;
 
     @Mock
-    private LoanInstallmentRepository installmentRepository;
+    private CustomerAccessChecker accessChecker;
 
     @Mock
-    private SecurityContext securityContext;
-
-    @Mock
-    private Authentication authentication;
+    private LoanMetrics loanMetrics;
 
     @InjectMocks
     private LoanService loanService;
@@ -62,8 +63,8 @@ class LoanServiceTest {
                 .id(1L)
                 .name("John")
                 .surname("Doe")
-                .creditLimit(new BigDecimal("10000"))
-                .usedCreditLimit(BigDecimal.ZERO)
+                .creditLimit(Money.of("10000"))
+                .usedCreditLimit(Money.ZERO)
                 .user(testUser)
                 .build();
 
@@ -75,33 +76,26 @@ class LoanServiceTest {
                 .build();
     }
 
-    private void setupSecurityContext() {
-        SecurityContextHolder.setContext(securityContext);
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(new CustomUserDetails(testUser));
-    }
-
     @Test
     void createLoan_Success() {
-        setupSecurityContext();
-
         when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
         when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> {
             Loan loan = invocation.getArgument(0);
             loan.setId(1L);
             return loan;
         });
-        when(installmentRepository.countPaidInstallmentsByLoanId(any())).thenReturn(0);
+        when(customerRepository.reserveCredit(eq(1L), any(Money.class))).thenReturn(1);
 
         LoanResponse response = loanService.createLoan(validRequest);
 
         assertNotNull(response);
         assertEquals(1L, response.getId());
-        assertEquals(new BigDecimal("1000"), response.getLoanAmount());
+        assertEquals(Money.of("1000"), response.getLoanAmount());
         assertEquals(6, response.getNumberOfInstallments());
-        assertEquals(0, new BigDecimal("1200.00").compareTo(response.getTotalAmount()));
+        assertEquals(Money.of("1200.00"), response.getTotalAmount());
 
-        verify(customerRepository).save(any(Customer.class));
+        verify(accessChecker).checkAccess(1L);
+        verify(customerRepository).reserveCredit(1L, Money.of("1200.00"));
         verify(loanRepository).save(any(Loan.class));
     }
 
@@ -121,10 +115,17 @@ class LoanServiceTest {
 
     @Test
     void createLoan_InsufficientCredit_ThrowsException() {
-        setupSecurityContext();
+        testCustomer.setUsedCreditLimit(Money.of("9500"));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
 
-        testCustomer.setUsedCreditLimit(new BigDecimal("9500"));
+        assertThrows(InsufficientCreditException.class, () -> loanService.createLoan(validRequest));
+    }
+
+    @Test
+    void createLoan_ConcurrentReservationExhaustsLimit_ThrowsException() {
         when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(customerRepository.reserveCredit(eq(1L), any(Money.class))).thenReturn(0);
 
         assertThrows(InsufficientCreditException.class, () -> loanService.createLoan(validRequest));
     }
@@ -138,21 +139,21 @@ class LoanServiceTest {
 
     @Test
     void listLoans_Success() {
-        setupSecurityContext();
-
         when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
 
-        Loan loan = Loan.builder()
+        LoanResponse loan = LoanResponse.builder()
                 .id(1L)
-                .customer(testCustomer)
-                .loanAmount(new BigDecimal("1000"))
-                .numberOfInstallment(6)
+                .customerId(1L)
+                .customerName("John Doe")
+                .loanAmount(Money.of("1000"))
+                .numberOfInstallments(6)
                 .interestRate(new BigDecimal("0.2"))
                 .isPaid(false)
+                .paidInstallments(2)
+                .remainingInstallments(4)
                 .build();
 
-        when(loanRepository.findByCustomerId(1L)).thenReturn(List.of(loan));
-        when(installmentRepository.countPaidInstallmentsByLoanId(1L)).thenReturn(2);
+        when(loanRepository.findLoanResponses(1L, null, null)).thenReturn(List.of(loan));
 
         List<LoanResponse> loans = loanService.listLoans(1L, null, null);
 
@@ -162,33 +163,93 @@ class LoanServiceTest {
     }
 
     @Test
-    void checkCustomerAccess_AsAdmin_Success() {
-        User adminUser = User.builder()
-                .id(2L)
-                .username("admin")
-                .roles(Set.of(User.Role.ADMIN))
-                .build();
+    void listLoans_WithFilters_PassesFiltersToQuery() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(loanRepository.findLoanResponses(1L, 12, true)).thenReturn(List.of());
 
-        SecurityContextHolder.setContext(securityContext);
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(new CustomUserDetails(adminUser));
+        List<LoanResponse> loans = loanService.listLoans(1L, 12, true);
 
-        // Should not throw exception
-        assertDoesNotThrow(() -> loanService.checkCustomerAccess(testCustomer));
+        assertTrue(loans.isEmpty());
+        verify(loanRepository).findLoanResponses(1L, 12, true);
     }
 
     @Test
-    void checkCustomerAccess_AsOtherCustomer_ThrowsException() {
-        User otherUser = User.builder()
-                .id(2L)
-                .username("jane.doe")
-                .roles(Set.of(User.Role.CUSTOMER))
+    void listLoansPage_CapsPageSizeAndReturnsCursor() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        LoanSearchCriteria criteria = LoanSearchCriteria.builder().customerId(1L).build();
+        List<LoanResponse> rows = new ArrayList<>();
+        for (long id = 1; id <= 101; id++) {
+            rows.add(LoanResponse.builder().id(id).build());
+        }
+        when(loanRepository.findLoanPage(criteria, null, 101)).thenReturn(rows);
+
+        LoanPageResponse page = loanService.listLoansPage(criteria, null, 5000);
+
+        assertEquals(100, page.getSize());
+        assertEquals(100, page.getLoans().size());
+        assertTrue(page.getHasMore());
+        assertEquals(100L, PageCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void listLoansPage_LastPage_HasNoCursor() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        LoanSearchCriteria criteria = LoanSearchCriteria.builder().customerId(1L).isPaid(false).build();
+        when(loanRepository.findLoanPage(criteria, 40L, 21))
+                .thenReturn(List.of(LoanResponse.builder().id(41L).build()));
+
+        LoanPageResponse page = loanService.listLoansPage(criteria, PageCursor.encode(40L), null);
+
+        assertEquals(1, page.getLoans().size());
+        assertFalse(page.getHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void listLoansPage_InvalidCursor_ThrowsException() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        LoanSearchCriteria criteria = LoanSearchCriteria.builder().customerId(1L).build();
+
+        assertThrows(InvalidLoanParametersException.class,
+                () -> loanService.listLoansPage(criteria, "not-a-cursor", 10));
+    }
+
+    @Test
+    void listInstallments_NumbersInstallmentsByPosition() {
+        Loan loan = Loan.builder()
+                .id(1L)
+                .customer(testCustomer)
+                .numberOfInstallment(3)
+                .installments(new ArrayList<>())
                 .build();
+        LocalDate firstDueDate = LocalDate.now().plusMonths(1).withDayOfMonth(1);
+        for (int i = 0; i < 3; i++) {
+            loan.getInstallments().add(LoanInstallment.builder()
+                    .id((long) (i + 10))
+                    .loan(loan)
+                    .amount(Money.of("400"))
+                    .paidAmount(Money.ZERO)
+                    .dueDate(firstDueDate.plusMonths(i))
+                    .isPaid(false)
+                    .build());
+        }
+
+        when(loanRepository.findByIdWithInstallments(1L)).thenReturn(Optional.of(loan));
+
+        List<InstallmentResponse> installments = loanService.listInstallments(1L);
+
+        assertEquals(3, installments.size());
+        assertEquals(1, installments.get(0).getInstallmentNumber());
+        assertEquals(3, installments.get(2).getInstallmentNumber());
+        assertEquals(12L, installments.get(2).getId());
+    }
 
-        SecurityContextHolder.setContext(securityContext);
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(new CustomUserDetails(otherUser));
+    @Test
+    void listLoans_AccessDenied_DoesNotQueryLoans() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        doThrow(new AccessDeniedException("denied")).when(accessChecker).checkAccess(1L);
 
-        assertThrows(AccessDeniedException.class, () -> loanService.checkCustomerAccess(testCustomer));
+        assertThrows(AccessDeniedException.class, () -> loanService.listLoans(1L, null, null));
+        verifyNoInteractions(loanRepository);
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,16 @@
 package com.bank.loanapi.service;
 
+import com.bank.loanapi.dto.request.BatchPaymentRequest;
+import com.bank.loanapi.dto.request.BatchPaymentRequest.PaymentItem;
 import com.bank.loanapi.dto.request.PayLoanRequest;
+import com.bank.loanapi.dto.response.BatchPaymentResponse;
 import com.bank.loanapi.dto.response.PaymentResultResponse;
 import com.bank.loanapi.entity.*;
 import com.bank.loanapi.exception.ResourceNotFoundException;
+import com.bank.loanapi.metrics.LoanMetrics;
+import com.bank.loanapi.money.Money;
 import com.bank.loanapi.repository.*;
+import com.bank.loanapi.security.CustomerAccessChecker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,13 +34,13 @@ class PaymentServiceTest {
     private LoanRepository loanRepository;
 
     @Mock
-    private LoanInstallmentRepository installmentRepository;
+    private CustomerRepository customerRepository;
 
     @Mock
-    private CustomerRepository customerRepository;
+    private CustomerAccessChecker accessChecker;
 
     @Mock
-    private LoanService loanService;
+    private LoanMetrics loanMetrics;
 
     @InjectMocks
     private PaymentService paymentService;
@@ -49,14 +55,14 @@ class PaymentServiceTest {
                 .id(1L)
                 .name("John")
                 .surname("Doe")
-                .creditLimit(new BigDecimal("10000"))
-                .usedCreditLimit(new BigDecimal("1200"))
+                .creditLimit(Money.of("10000"))
+                .usedCreditLimit(Money.of("1200"))
                 .build();
 
         testLoan = Loan.builder()
                 .id(1L)
                 .customer(testCustomer)
-                .loanAmount(new BigDecimal("1000"))
+                .loanAmount(Money.of("1000"))
                 .numberOfInstallment(6)
                 .interestRate(new BigDecimal("0.2"))
                 .createDate(LocalDateTime.now())
@@ -72,14 +78,15 @@ class PaymentServiceTest {
             LoanInstallment installment = LoanInstallment.builder()
                     .id((long) (i + 1))
                     .loan(testLoan)
-                    .amount(new BigDecimal("200"))
-                    .paidAmount(BigDecimal.ZERO)
+                    .amount(Money.of("200"))
+                    .paidAmount(Money.ZERO)
                     .dueDate(baseDate.plusMonths(i))
                     .isPaid(false)
                     .build();
             testInstallments.add(installment);
             testLoan.getInstallments().add(installment);
         }
+        LoanCalculator.summarize(testLoan);
     }
 
     @Test
@@ -87,17 +94,16 @@ class PaymentServiceTest {
         PayLoanRequest request = new PayLoanRequest(new BigDecimal("200"));
 
         when(loanRepository.findByIdWithInstallments(1L)).thenReturn(Optional.of(testLoan));
-        when(installmentRepository.findPayableInstallments(eq(1L), any(LocalDate.class)))
-                .thenReturn(testInstallments.subList(0, 3)); // First 3 installments
 
         PaymentResultResponse response = paymentService.payLoan(1L, request);
 
         assertNotNull(response);
         assertEquals(1, response.getInstallmentsPaid());
-        assertTrue(response.getTotalAmountSpent().compareTo(BigDecimal.ZERO) > 0);
+        assertTrue(response.getTotalAmountSpent().compareTo(Money.ZERO) > 0);
         assertFalse(response.getIsLoanFullyPaid());
 
         verify(loanRepository).save(testLoan);
+        verify(loanMetrics).installmentsPaid(response.getPaidInstallments());
     }
 
     @Test
@@ -105,13 +111,15 @@ class PaymentServiceTest {
         PayLoanRequest request = new PayLoanRequest(new BigDecimal("600"));
 
         when(loanRepository.findByIdWithInstallments(1L)).thenReturn(Optional.of(testLoan));
-        when(installmentRepository.findPayableInstallments(eq(1L), any(LocalDate.class)))
-                .thenReturn(testInstallments.subList(0, 3));
 
         PaymentResultResponse response = paymentService.payLoan(1L, request);
 
         assertEquals(3, response.getInstallmentsPaid());
         assertFalse(response.getIsLoanFullyPaid());
+        assertEquals(Money.of("600"), response.getRemainingLoanAmount());
+        assertEquals(3, testLoan.getPaidInstallmentCount());
+        assertEquals(Money.of("600"), testLoan.getRemainingAmount());
+        assertEquals(testInstallments.get(3).getDueDate(), testLoan.getNextDueDate());
     }
 
     @Test
@@ -122,14 +130,12 @@ class PaymentServiceTest {
         testInstallments.get(0).setDueDate(LocalDate.now().plusDays(10));
 
         when(loanRepository.findByIdWithInstallments(1L)).thenReturn(Optional.of(testLoan));
-        when(installmentRepository.findPayableInstallments(eq(1L), any(LocalDate.class)))
-                .thenReturn(List.of(testInstallments.get(0)));
 
         PaymentResultResponse response = paymentService.payLoan(1L, request);
 
         assertEquals(1, response.getInstallmentsPaid());
         // Should be less than 200 due to discount
-        assertTrue(response.getTotalAmountSpent().compareTo(new BigDecimal("200")) < 0);
+        assertTrue(response.getTotalAmountSpent().compareTo(Money.of("200")) < 0);
         assertEquals("EARLY", response.getPaidInstallments().get(0).getPaymentType());
     }
 
@@ -141,14 +147,12 @@ class PaymentServiceTest {
         testInstallments.get(0).setDueDate(LocalDate.now().minusDays(10));
 
         when(loanRepository.findByIdWithInstallments(1L)).thenReturn(Optional.of(testLoan));
-        when(installmentRepository.findPayableInstallments(eq(1L), any(LocalDate.class)))
-                .thenReturn(List.of(testInstallments.get(0)));
 
         PaymentResultResponse response = paymentService.payLoan(1L, request);
 
         assertEquals(1, response.getInstallmentsPaid());
         // Should be more than 200 due to penalty
-        assertTrue(response.getTotalAmountSpent().compareTo(new BigDecimal("200")) > 0);
+        assertTrue(response.getTotalAmountSpent().compareTo(Money.of("200")) > 0);
         assertEquals("LATE", response.getPaidInstallments().get(0).getPaymentType());
     }
 
@@ -171,9 +175,10 @@ class PaymentServiceTest {
 
     @Test
     void payLoan_NoPayableInstallments_ThrowsException() {
+        // The remaining installments are all due beyond the payable window
+        testInstallments.subList(0, 3).forEach(i -> i.setIsPaid(true));
+        LoanCalculator.summarize(testLoan);
         when(loanRepository.findByIdWithInstallments(1L)).thenReturn(Optional.of(testLoan));
-        when(installmentRepository.findPayableInstallments(eq(1L), any(LocalDate.class)))
-                .thenReturn(new ArrayList<>());
 
         assertThrows(IllegalStateException.class,
                 () -> paymentService.payLoan(1L, new PayLoanRequest(new BigDecimal("200"))));
@@ -183,11 +188,11 @@ class PaymentServiceTest {
     void payLoan_FullPayment_UpdatesLoanStatus() {
         // Set only 2 unpaid installments
         testInstallments.subList(2, 6).forEach(i -> i.setIsPaid(true));
+        LoanCalculator.summarize(testLoan);
         PayLoanRequest request = new PayLoanRequest(new BigDecimal("400"));
 
         when(loanRepository.findByIdWithInstallments(1L)).thenReturn(Optional.of(testLoan));
-        when(installmentRepository.findPayableInstallments(eq(1L), any(LocalDate.class)))
-                .thenReturn(testInstallments.subList(0, 2));
+        when(customerRepository.releaseCredit(eq(1L), any(Money.class))).thenReturn(1);
 
         PaymentResultResponse response = paymentService.payLoan(1L, request);
 
@@ -195,6 +200,75 @@ class PaymentServiceTest {
         assertTrue(response.getIsLoanFullyPaid());
         assertTrue(testLoan.getIsPaid());
 
-        verify(customerRepository).save(testCustomer);
+        verify(customerRepository).releaseCredit(eq(1L), argThat(amount -> amount.compareTo(Money.of("1200")) == 0));
+    }
+
+    @Test
+    void payLoans_MixedItems_ReportsEachResult() {
+        Loan paidLoan = Loan.builder()
+                .id(2L)
+                .customer(testCustomer)
+                .loanAmount(Money.of("1000"))
+                .interestRate(new BigDecimal("0.2"))
+                .isPaid(true)
+                .installments(new ArrayList<>())
+                .build();
+        BatchPaymentRequest request = new BatchPaymentRequest(List.of(
+                new PaymentItem(1L, new BigDecimal("200")),
+                new PaymentItem(2L, new BigDecimal("200")),
+                new PaymentItem(3L, new BigDecimal("200")),
+                new PaymentItem(1L, new BigDecimal("200"))));
+
+        when(loanRepository.findAllWithInstallmentsByIdIn(List.of(1L, 2L, 3L))).thenReturn(List.of(testLoan, paidLoan));
+
+        BatchPaymentResponse response = paymentService.payLoans(request);
+
+        assertEquals(2, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertEquals("SUCCESS", response.getResults().get(0).getStatus());
+        assertEquals("Loan is already fully paid", response.getResults().get(1).getError());
+        assertEquals("Loan not found", response.getResults().get(2).getError());
+        assertEquals(testInstallments.get(1).getId(),
+                response.getResults().get(3).getPayment().getPaidInstallments().get(0).getInstallmentId());
+        verify(loanRepository, never()).findByIdWithInstallments(any());
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void payLoans_FullyPaidLoans_ReleaseCreditOncePerCustomer() {
+        testInstallments.subList(1, 6).forEach(i -> i.setIsPaid(true));
+        LoanCalculator.summarize(testLoan);
+        Loan secondLoan = Loan.builder()
+                .id(2L)
+                .customer(testCustomer)
+                .loanAmount(Money.of("500"))
+                .numberOfInstallment(1)
+                .interestRate(new BigDecimal("0.2"))
+                .isPaid(false)
+                .installments(new ArrayList<>())
+                .build();
+        secondLoan.getInstallments().add(LoanInstallment.builder()
+                .id(7L)
+                .loan(secondLoan)
+                .amount(Money.of("600"))
+                .paidAmount(Money.ZERO)
+                .dueDate(LocalDate.now())
+                .isPaid(false)
+                .build());
+        LoanCalculator.summarize(secondLoan);
+        BatchPaymentRequest request = new BatchPaymentRequest(List.of(
+                new PaymentItem(1L, new BigDecimal("200")),
+                new PaymentItem(2L, new BigDecimal("600"))));
+
+        when(loanRepository.findAllWithInstallmentsByIdIn(List.of(1L, 2L))).thenReturn(List.of(testLoan, secondLoan));
+        when(customerRepository.releaseCredit(eq(1L), any(Money.class))).thenReturn(1);
+
+        BatchPaymentResponse response = paymentService.payLoans(request);
+
+        assertEquals(2, response.getSucceeded());
+        assertTrue(testLoan.getIsPaid());
+        assertTrue(secondLoan.getIsPaid());
+        verify(customerRepository, times(1))
+                .releaseCredit(eq(1L), argThat(amount -> amount.compareTo(Money.of("1800")) == 0));
     }
 }
@@ -0,0 +1,119 @@
+package com.bank.loanapi.service;
+
+import com.bank.loanapi.entity.Customer;
+import com.bank.loanapi.entity.Loan;
+import com.bank.loanapi.entity.LoanInstallment;
+import com.bank.loanapi.entity.PenaltyAccrualCheckpoint;
+import com.bank.loanapi.money.Money;
+import com.bank.loanapi.repository.CustomerRepository;
+import com.bank.loanapi.repository.LoanInstallmentRepository;
+import com.bank.loanapi.repository.LoanRepository;
+import com.bank.loanapi.repository.PenaltyAccrualCheckpointRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"penalty-accrual.chunk-size=2", "penalty-accrual.parallelism=2", "penalty-accrual.cron=-"})
+@ActiveProfiles("test")
+class PenaltyAccrualServiceTest {
+
+    @Autowired
+    private PenaltyAccrualService penaltyAccrualService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanInstallmentRepository installmentRepository;
+
+    @Autowired
+    private PenaltyAccrualCheckpointRepository checkpointRepository;
+
+    @Test
+    void accrue_WritesPenaltiesOnOverdueUnpaidInstallmentsOnly() {
+        LocalDate asOf = LocalDate.of(2031, 5, 10);
+        List<Long> ids = createLoan(LocalDate.of(2031, 1, 1));
+        payFirstInstallment(ids);
+
+        assertTrue(penaltyAccrualService.accrue(asOf) >= 4);
+
+        List<LoanInstallment> installments = reload(ids);
+        assertEquals(Money.ZERO, installments.get(0).getAccruedPenalty());
+        assertNull(installments.get(0).getPenaltyAccruedOn());
+        // 200.00 due 2031-02-01 is 98 days late: 0.1% a day
+        assertEquals(Money.of("19.60"), installments.get(1).getAccruedPenalty());
+        assertEquals(asOf, installments.get(1).getPenaltyAccruedOn());
+        assertEquals(1L, installments.get(1).getVersion());
+        assertEquals(Money.of("1.80"), installments.get(4).getAccruedPenalty());
+        assertEquals(Money.ZERO, installments.get(5).getAccruedPenalty());
+        assertTrue(checkpointRepository.findById(asOf).orElseThrow().getCompleted());
+
+        assertEquals(0, penaltyAccrualService.accrue(asOf));
+    }
+
+    @Test
+    void accrue_ResumesAfterTheCheckpoint() {
+        LocalDate asOf = LocalDate.of(2031, 6, 2);
+        List<Long> ids = createLoan(LocalDate.of(2031, 1, 1));
+        checkpointRepository.save(PenaltyAccrualCheckpoint.builder()
+                .accrualDate(asOf)
+                .lastInstallmentId(ids.get(2))
+                .completed(false)
+                .updatedAt(LocalDateTime.now())
+                .build());
+
+        penaltyAccrualService.accrue(asOf);
+
+        List<LoanInstallment> installments = reload(ids);
+        assertNull(installments.get(2).getPenaltyAccruedOn());
+        assertEquals(asOf, installments.get(3).getPenaltyAccruedOn());
+        assertEquals(asOf, installments.get(5).getPenaltyAccruedOn());
+        assertEquals(Money.of("0.20"), installments.get(5).getAccruedPenalty());
+    }
+
+    // A 1000.00 loan at 20% in six installments of 200.00, due on the 1st of each month from firstDueDate
+    private List<Long> createLoan(LocalDate firstDueDate) {
+        Customer customer = customerRepository.save(Customer.builder()
+                .name("Late")
+                .surname("Payer")
+                .creditLimit(Money.of("5000.00"))
+                .usedCreditLimit(Money.of("1200.00"))
+                .build());
+        Loan loan = LoanService.newLoan(customer, Money.of("1000.00"), new BigDecimal("0.20"), 6,
+                Money.of("1200.00"));
+        loan.getInstallments().clear();
+        LoanService.addInstallments(loan, Money.of("1200.00"), firstDueDate);
+        LoanCalculator.summarize(loan);
+        return loanRepository.save(loan).getInstallments().stream()
+                .map(LoanInstallment::getId)
+                .sorted()
+                .toList();
+    }
+
+    private void payFirstInstallment(List<Long> ids) {
+        LoanInstallment first = installmentRepository.findById(ids.get(0)).orElseThrow();
+        first.setIsPaid(true);
+        first.setPaidAmount(first.getAmount());
+        first.setPaymentDate(first.getDueDate());
+        installmentRepository.save(first);
+    }
+
+    private List<LoanInstallment> reload(List<Long> ids) {
+        return installmentRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(LoanInstallment::getId))
+                .toList();
+    }
+}